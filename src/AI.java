@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Enumeração que representa o estado atual do jogador AI.
@@ -28,8 +29,9 @@ enum Status {
  * 
  * <p><b>Estratégias Implementadas:</b></p>
  * <ul>
- *   <li><b>Descarte Inteligente:</b> Prioriza descartar peças de honra únicas e evita 
- *       descartar peças com potencial de formação de combinações</li>
+ *   <li><b>Descarte Inteligente:</b> Escolhe descartes que mantêm o menor shanten e a
+ *       maior aceitação de peças vivas ({@link Ukeire}); entre eles, prioriza descartar
+ *       peças de honra únicas e evita descartar peças com potencial de formação de combinações</li>
  *   <li><b>Avaliação de Potencial:</b> Cada peça recebe uma pontuação baseada em:
  *       <ul>
  *         <li>Quantidade de peças idênticas na mão (pares/triplos)</li>
@@ -39,6 +41,8 @@ enum Status {
  *   </li>
  *   <li><b>Decisão de Ações:</b> Avalia inteligentemente se vale a pena fazer chow ou pong
  *       baseado no potencial futuro das peças</li>
+ *   <li><b>Defesa:</b> Com um oponente em riichi e a mão fora do tenpai, descarta só
+ *       peças de menor risco pelo {@link DangerModel} da mesa</li>
  * </ul>
  * @see Player
  */
@@ -67,12 +71,15 @@ public class AI extends Player{
 	
 	/** Estado atual do jogador (FREE, RICHI ou WIN) */
 	private Status status;
-	
-	/** Última peça jogada (para desfazer ações falhadas) */
-	private Tile prevTile;
-	
-	/** Última ação executada (para desfazer ações falhadas) */
-	private Action prevAct;
+
+	/** Quantidades de rascunho para avaliar chamadas sem copiar a mão */
+	private final int[] scratch = new int[Hand.KINDS];
+
+	/** Planejador que substitui a estratégia 0 do descarte, ou null */
+	private ExpectimaxPlanner planner;
+
+	/** Valor de cada descarte pelo planejador */
+	private double[] planned;
 
 	/**
 	 * Construtor da IA.
@@ -84,8 +91,27 @@ public class AI extends Player{
 		super(name, score);
 		exposed = 0;
 		status = Status.FREE;
-		prevTile = null;
-		prevAct = null;
+	}
+
+	/**
+	 * Cópia para uma pergunta em outra thread: a mão, a mesa e o rascunho são
+	 * da cópia. O planejador não é copiado (ele guarda o estado de uma
+	 * busca), então a cópia escolhe o descarte de uma chamada pelo shanten e
+	 * ukeire.
+	 */
+	protected AI(AI other){
+		super(other);
+		exposed = other.exposed;
+		status = other.status;
+	}
+
+	/**
+	 * Passa a escolher os candidatos a descarte pelo planejador (null volta
+	 * ao shanten e ukeire).
+	 */
+	public void setPlanner(ExpectimaxPlanner planner){
+		this.planner = planner;
+		planned = planner == null ? null : new double[Hand.KINDS];
 	}
 
 	/**
@@ -106,113 +132,114 @@ public class AI extends Player{
 		if( hand.chowable(tile) == 0 )
 			return false;
 	
-		Hand tmp = new Hand(hand.getAll()) ;
-		tmp.add(tile) ;
-		Collections.sort(tmp.getAll().get(tile.getSuit()));
+		int[] tmp = hand.getCounts(scratch) ;
+		tmp[tile.getIndex()]++ ;
 
 		/* remove all shuns in the hand */
-		int i = 0 ;
-		int s = tmp.getAll().get(tile.getSuit()).size() ;
-		while(i < s - 2){
-			Tile a = tmp.getAll().get(tile.getSuit()).get(i);
-			Tile b = tmp.getAll().get(tile.getSuit()).get(i+1);
-			Tile c = tmp.getAll().get(tile.getSuit()).get(i+2);
-			if(a.getIndex() + 1 == b.getIndex() && b.getIndex() + 1 == c.getIndex()){
-				tmp.discard(a) ;
-				tmp.discard(b) ;
-				tmp.discard(c) ;
-				s = tmp.getAll().get(tile.getSuit()).size() ;
-				continue ;
-			}
-			else {
-				i++ ;
-				s = tmp.getAll().get(tile.getSuit()).size() ;
-			}
-		}
+		Hand.takeShun(tmp, tile.getSuit(), true) ;
 
 		/* check if the tile you want to chow is left or not */
-		s = tmp.getAll().get(tile.getSuit()).size() ;
-		for( int j = 0 ; j < s ; j++ ){
-			if( tmp.getAll().get(tile.getSuit()).get(j).equals(tile) )
-				return false ;
-		}
-		return true ;
+		return tmp[tile.getIndex()] == 0 ;
 	}
 
 	private boolean doPong(Tile tile){
 		if( !hand.pongable(tile) )
 			return false ;
 	
-		Hand tmp = new Hand(hand.getAll()) ;
-		tmp.add(tile) ;
-		Collections.sort(tmp.getAll().get(tile.getSuit()));
+		int[] tmp = hand.getCounts(scratch) ;
+		tmp[tile.getIndex()]++ ;
 
 		/* remove all shuns in the hand */
-		int i = 0 ;
-		int s = tmp.getAll().get(tile.getSuit()).size() ;
-		while(i < s - 2){
-			Tile a = tmp.getAll().get(tile.getSuit()).get(i);
-			Tile b = tmp.getAll().get(tile.getSuit()).get(i+1);
-			Tile c = tmp.getAll().get(tile.getSuit()).get(i+2);
-			if(a.getIndex() + 1 == b.getIndex() && b.getIndex() + 1 == c.getIndex()){
-				tmp.discard(a) ;
-				tmp.discard(b) ;
-				tmp.discard(c) ;
-				s = tmp.getAll().get(tile.getSuit()).size() ;
-				continue ;
-			}
-			else {
-				i++ ;
-				s = tmp.getAll().get(tile.getSuit()).size() ;
-			}
-		}
+		if( tile.getSuit() != 3 )
+			Hand.takeShun(tmp, tile.getSuit(), true) ;
 
 		/* check if the tile you want to pong is left and size >= 3 or not */
-		s = tmp.getAll().get(tile.getSuit()).size() ;
-		for( int j = 0 ; j < s ; j++ ){
-			if( tmp.getAll().get(tile.getSuit()).get(j).equals(tile) && tmp.getAll().get(tile.getSuit()).get(j).getSize() >= 3 )
-				return true ;
-		}
-		return false ;
+		return tmp[tile.getIndex()] >= 3 ;
 	}
 
 	private boolean doRichi(Tile tile){
 		if( exposed == 0 ){
-			ArrayList<Tile> tingTile = hand.tingable(tile) ;
-			if( tingTile != null && tingTile.size() > 0 )
-				return true ;
+			/* tenpai after a discard: some discard of the 14 tiles leaves a real wait */
+			hand.add(tile) ;
+			long evaluation = hand.getShanten() == 0 ? hand.evaluate() : 0 ;
+			hand.discard(tile) ;
+			return Evaluation.mask(evaluation) != 0 ;
 		}
 		return false ;
 	}
 
 	private boolean doHu(Tile tile){
-		if( hand.tingable(tile) == null )
-			return true ;
-		else
-			return false ;
+		return hand.isWinningWith(tile) ;
 	}
 
 	/**
 	 * Estratégia melhorada de descarte - Torna a IA mais inteligente e desafiadora
 	 * Prioridades:
+	 * 0. Só considerar descartes com o menor shanten e, entre eles, a maior
+	 *    quantidade de peças vivas que avançam a mão (ukeire)
 	 * 1. Descartar peças de Honra únicas (Ventos/Dragões sem pares)
 	 * 2. Descartar peças com menor potencial de combinação
 	 * 3. Evitar descartar peças que formam ou podem formar combinações
 	 */
 	private Tile decideDiscard(Hand _hand){
+		return decideDiscard(_hand.getCounts(scratch));
+	}
+
+	/**
+	 * Descarte depois de uma compra, com a peça comprada já na mão (a mão não
+	 * é alterada). Subclasses podem trocar a heurística por uma busca.
+	 */
+	protected Tile chooseDiscard(Hand _hand){
+		return decideDiscard(_hand) ;
+	}
+
+	/**
+	 * Mesma escolha de {@link #decideDiscard(Hand)} sobre um vetor de
+	 * quantidades, para avaliar uma chamada sem alterar a mão.
+	 */
+	private Tile decideDiscard(int[] counts){
 		ArrayList<Tile> allHandTiles = new ArrayList<Tile>();
 		
 		// Coletar todas as peças da mão em uma única lista
-		for(int suit = 0; suit <= 3; suit++){
-			for(Tile tile : _hand.getAll().get(suit)){
-				for(int i = 0; i < tile.getSize(); i++){
-					allHandTiles.add(new Tile(tile.getIndex()));
+		for(int index = 0; index < Hand.KINDS; index++){
+			for(int i = 0; i < counts[index]; i++){
+				allHandTiles.add(Tile.of(index));
+			}
+		}
+
+		// Estratégia 0: shanten e aceitação (ukeire) de cada descarte possível,
+		// contando apenas as peças que ainda não apareceram na mesa; com um
+		// planejador, o valor do expectimax sobre as próximas compras
+		ArrayList<Tile> candidates = new ArrayList<Tile>();
+		if(planner != null){
+			int best = planner.plan(counts, visible, planned);
+			for(Tile tile : allHandTiles){
+				if(planned[tile.getIndex()] == planned[best]){
+					candidates.add(tile);
+				}
+			}
+		}
+		else{
+			int[] shanten = new int[Hand.KINDS];
+			int[] ukeire = new int[Hand.KINDS];
+			int best = Ukeire.evaluate(counts, visible, shanten, ukeire);
+			for(Tile tile : allHandTiles){
+				int i = tile.getIndex();
+				if(shanten[i] == shanten[best] && ukeire[i] == ukeire[best]){
+					candidates.add(tile);
 				}
 			}
 		}
 
+		// Defesa: com um oponente em riichi e a mão fora do tenpai, só as peças
+		// de menor risco ({@link DangerModel}); entre elas seguem as estratégias
+		// de ataque
+		if(danger != null && danger.anyRiichi(seat) && Shanten.calculate(counts) > 0){
+			candidates = safest(candidates, allHandTiles);
+		}
+
 		// Estratégia 1: Priorizar descarte de peças de Honra únicas
-		Tile uniqueHonor = findUniqueHonorTile(allHandTiles);
+		Tile uniqueHonor = findUniqueHonorTile(candidates);
 		if(uniqueHonor != null){
 			return uniqueHonor;
 		}
@@ -221,7 +248,7 @@ public class AI extends Player{
 		Tile worstTile = null;
 		int lowestPotential = Integer.MAX_VALUE;
 
-		for(Tile tile : allHandTiles){
+		for(Tile tile : candidates){
 			int potential = evaluateTilePotential(tile, allHandTiles);
 			if(potential < lowestPotential){
 				lowestPotential = potential;
@@ -231,12 +258,33 @@ public class AI extends Player{
 
 		// Fallback: se nenhuma estratégia funcionou, usar a lógica antiga
 		if(worstTile == null){
-			return fallbackDiscard(_hand);
+			return fallbackDiscard(counts);
 		}
 
 		return worstTile;
 	}
 
+	/**
+	 * Peças de menor risco contra os oponentes em riichi: as dos candidatos
+	 * de ataque, se algum tem o menor risco da mão, senão as da mão toda.
+	 */
+	private ArrayList<Tile> safest(ArrayList<Tile> candidates, ArrayList<Tile> allHandTiles){
+		double min = Double.MAX_VALUE;
+		for(Tile tile : allHandTiles){
+			min = Math.min(min, danger.riichiDanger(seat, tile.getIndex()));
+		}
+		ArrayList<Tile> res = new ArrayList<Tile>();
+		for(Tile tile : candidates){
+			if(danger.riichiDanger(seat, tile.getIndex()) == min) res.add(tile);
+		}
+		if(res.isEmpty()){
+			for(Tile tile : allHandTiles){
+				if(danger.riichiDanger(seat, tile.getIndex()) == min) res.add(tile);
+			}
+		}
+		return res;
+	}
+
 	/**
 	 * Encontra uma peça de Honra única na mão (sem pares)
 	 * @param hand Lista de todas as peças na mão
@@ -345,140 +393,99 @@ public class AI extends Player{
 	 * Lógica de descarte original como fallback
 	 * Usado apenas se as estratégias melhoradas falharem
 	 */
-	private Tile fallbackDiscard(Hand _hand){
-		Hand tmp = new Hand(_hand.getAll());
+	private Tile fallbackDiscard(int[] counts){
+		int[] tmp = counts.clone();
 
 		/* initialize discard tile */
-		Tile res = null;
-		for(int suit = 3; suit >= 0; suit--){
-			if(tmp.getAll().get(suit).size() > 0){
-				res = tmp.getAll().get(suit).get(0);
-				break;
-			}
-		}
+		Tile res = firstTile(tmp);
 
 		/* remove all shuns in the hand */
 		for(int suit = 0; suit <= 2; suit++){
-			Collections.sort(tmp.getAll().get(suit));
-
-			int i = 0;
-			int s = tmp.getAll().get(suit).size();
-			while(i < s - 2){
-				Tile a = tmp.getAll().get(suit).get(i);
-				Tile b = tmp.getAll().get(suit).get(i+1);
-				Tile c = tmp.getAll().get(suit).get(i+2);
-				if(a.getIndex() + 1 == b.getIndex() && b.getIndex() + 1 == c.getIndex()){
-					tmp.discard(a);
-					tmp.discard(b);
-					tmp.discard(c);
-					s = tmp.getAll().get(suit).size();
-					continue;
-				}
-				else{
-					i++;
-					s = tmp.getAll().get(suit).size();
+			for(int i = suit * 9; i <= suit * 9 + 6; i++){
+				while(tmp[i] > 0 && tmp[i+1] > 0 && tmp[i+2] > 0){
+					tmp[i]--;
+					tmp[i+1]--;
+					tmp[i+2]--;
 				}
 			}
 		}
-
-		for(int suit = 3; suit >= 0; suit--){
-			if(tmp.getAll().get(suit).size() > 0){
-				res = tmp.getAll().get(suit).get(0);
-				break;
-			}
-		}
+		if(firstTile(tmp) != null) res = firstTile(tmp);
 
 		/* remove all triplets in the hand */
-		for(int suit = 0; suit <= 3; suit++){
-			Collections.sort(tmp.getAll().get(suit));
-
-			int i = 0;
-			int s = tmp.getAll().get(suit).size();
-			while(i < s){
-				Tile a = tmp.getAll().get(suit).get(i);
-				if(a.getSize() >= 3){
-					tmp.discard(a);
-					tmp.discard(a);
-					tmp.discard(a);
-					s = tmp.getAll().get(suit).size();
-					continue;
-				}
-				else{
-					i++;
-					s = tmp.getAll().get(suit).size();
-				}
-			}
-		}
-
-		for(int suit = 3; suit >= 0; suit--){
-			if(tmp.getAll().get(suit).size() > 0){
-				res = tmp.getAll().get(suit).get(0);
-				break;
-			}
+		for(int i = 0; i < Hand.KINDS; i++){
+			if(tmp[i] >= 3) tmp[i] -= 3;
 		}
+		if(firstTile(tmp) != null) res = firstTile(tmp);
 
 		/* remove all pairs in the hand */
-		for(int suit = 0; suit <= 3; suit++){
-			Collections.sort(tmp.getAll().get(suit));
-
-			int i = 0;
-			int s = tmp.getAll().get(suit).size();
-			while(i < s){
-				Tile a = tmp.getAll().get(suit).get(i);
-				if(a.getSize() >= 2){
-					tmp.discard(a);
-					tmp.discard(a);
-					s = tmp.getAll().get(suit).size();
-					continue;
-				}
-				else{
-					i++;
-					s = tmp.getAll().get(suit).size();
-				}
-			}
+		for(int i = 0; i < Hand.KINDS; i++){
+			if(tmp[i] >= 2) tmp[i] -= 2;
 		}
+		if(firstTile(tmp) != null) res = firstTile(tmp);
+
+		return res;
+	}
 
+	/**
+	 * Primeira peça do naipe mais alto que ainda tem peças (honras antes de 條, 筒 e 萬).
+	 */
+	private Tile firstTile(int[] counts){
 		for(int suit = 3; suit >= 0; suit--){
-			if(tmp.getAll().get(suit).size() > 0){
-				res = tmp.getAll().get(suit).get(0);
-				break;
+			int end = suit == 3 ? Hand.KINDS : suit * 9 + 9;
+			for(int i = suit * 9; i < end; i++){
+				if(counts[i] > 0) return Tile.of(i);
 			}
 		}
-
-		return res;
+		return null;
 	}
 
 	private Action win(int actionType){ /* status: RON or HU */
+		status = Status.WIN ;
+		return winWith(actionType, null) ;
+	}
+
+	/* a mão com a peça da vitória, sem alterar a mão (tile null = já está na mão) */
+	private Action winWith(int actionType, Tile tile){
 		ArrayList<Tile> allTiles = new ArrayList<Tile>() ;
-		for( int i = 0 ; i <= 3 ; i++ ){
-			ArrayList<Tile> tmp = hand.getAll().get(i) ;
-			for( int t = 0 ; t < tmp.size() ; t++ )
-				allTiles.add( tmp.get(t) ) ;
+		for( int i = 0 ; i < Hand.KINDS ; i++ ){
+			int n = hand.getCount(i) + (tile != null && tile.getIndex() == i ? 1 : 0) ;
+			for( int t = 0 ; t < n ; t++ )
+				allTiles.add( Tile.of(i) ) ;
 		}
-		status = Status.WIN ;
-		prevAct = new Action(actionType, allTiles) ;
-		return prevAct ;
+		return new Action(actionType, allTiles) ;
+	}
+
+	/* chow ou pong: a peça descartada depois de formar o grupo first..third, sem alterar a mão */
+	private Action meldClaim(int actionType, Tile tile, int first, int second, int third){
+		int[] tmp = hand.getCounts(scratch) ;
+		tmp[tile.getIndex()]++ ;
+		tmp[first]-- ;
+		tmp[second]-- ;
+		tmp[third]-- ;
+
+		ArrayList<Tile> discardList = new ArrayList<Tile>() ;
+		discardList.add( decideDiscard(tmp) ) ;
+		discardList.add( Tile.of(first) ) ;
+		discardList.add( Tile.of(second) ) ;
+		discardList.add( Tile.of(third) ) ;
+		return new Action(actionType, discardList) ;
 	}
 
 	public Action doSomething(int from, Tile tile){ //from 0 draw 1 next 2 opposite 3 previous
 		if(from == 0){ //draw, richi, add kong, private kong, hu
 			if( doHu(tile) ){ /* huable */
 				hand.add(tile) ;
-				prevTile = tile.copy() ;
 				return win(HU) ;
 			}
 			else if( status == Status.RICHI ){
-				prevTile = tile.copy() ;
 				ArrayList<Tile> discardList = new ArrayList<Tile>() ;
 				discardList.add( tile ) ;
 
-				prevAct = new Action(DRAW, discardList) ;
-				return prevAct ;
+				return new Action(DRAW, discardList) ;
 			}
 			else if( doRichi(tile) ){
 				ArrayList<Tile> tingTile = hand.tingable(tile) ;
 				hand.add(tile) ;
-				prevTile = tile.copy() ;
 
 				ArrayList<Tile> discardList = new ArrayList<Tile>() ;
 				Tile discardTile = tingTile.get(0) ;
@@ -486,161 +493,87 @@ public class AI extends Player{
 				hand.discard( discardTile ) ;
 
 				status = Status.RICHI ;
-				prevAct = new Action(RICHI, discardList) ;
-				return prevAct ;	
+				return new Action(RICHI, discardList) ;	
 			}
 			else {
 				hand.add(tile) ;
-				prevTile = tile.copy() ;
 
 				ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-				Tile discardTile = decideDiscard(hand) ;
+				Tile discardTile = chooseDiscard(hand) ;
 				discardList.add( discardTile ) ;
 				hand.discard( discardTile ) ;
 
-				prevAct = new Action(DRAW, discardList) ;
-				return prevAct ;
+				return new Action(DRAW, discardList) ;
 			}
 		}
-		else if(from == 3){//chow, pong, kong, ron
-			if( doHu(tile) ){
-				hand.add(tile) ;
-				prevTile = tile.copy() ;
-				return win(RON) ;
-			}
-			else if( status == Status.RICHI ){
-				prevAct = null ;
-				return prevAct ;
-			}
-			else if( doChow(tile) ){
-				int flag = hand.chowable(tile) ;
-				hand.add(tile) ;
-				prevTile = tile.copy() ;
-				if( (flag & 0b001) > 0 ){
-					hand.discard(new Tile(tile.getIndex()-2)) ;
-					hand.discard(new Tile(tile.getIndex()-1)) ;
-					hand.discard(tile) ;
-					exposed++ ;
-
-					Tile discardTile = decideDiscard(hand) ;
-					ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-
-					discardList.add( discardTile ) ;
-					discardList.add(new Tile(tile.getIndex()-2)) ;
-					discardList.add(new Tile(tile.getIndex()-1)) ;
-					discardList.add(tile) ;
-					hand.discard( discardTile ) ;
-
-					prevAct = new Action(CHOW, discardList) ;
-					return prevAct ;
-				}
-				else if( (flag & 0b010) > 0 ){
-					hand.discard(new Tile(tile.getIndex()-1)) ;
-					hand.discard(tile) ;
-					hand.discard(new Tile(tile.getIndex()+1)) ;
-					exposed++ ;
-
-					Tile discardTile = decideDiscard(hand) ;
-					ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-
-					discardList.add( discardTile ) ;
-					discardList.add(new Tile(tile.getIndex()-1)) ;
-					discardList.add(tile) ;
-					discardList.add(new Tile(tile.getIndex()+1)) ;
-					hand.discard( discardTile ) ;
-
-					prevAct = new Action(CHOW, discardList) ;
-					return prevAct ;
-				}
-				else {
-					hand.discard(tile) ;
-					hand.discard(new Tile(tile.getIndex()+1)) ;
-					hand.discard(new Tile(tile.getIndex()+2)) ;
-					exposed++ ;
-
-					Tile discardTile = decideDiscard(hand) ;
-					ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-
-					discardList.add( discardTile ) ;
-					discardList.add(tile) ;
-					discardList.add(new Tile(tile.getIndex()+1)) ;
-					discardList.add(new Tile(tile.getIndex()+2)) ;
-					hand.discard( discardTile ) ;
-
-					prevAct = new Action(CHOW, discardList) ;
-					return prevAct ;
-				}
-			}
-			else if( doPong(tile) ){
-				hand.add(tile) ;
-				prevTile = tile.copy() ;
-				hand.discard(tile) ;
-				hand.discard(tile) ;
-				hand.discard(tile) ;
-				exposed++ ;
-
-				Tile discardTile = decideDiscard(hand) ;
-				ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-				discardList.add( discardTile ) ;
-				discardList.add(tile) ;
-				discardList.add(tile) ;
-				discardList.add(tile) ;
-				hand.discard( discardTile ) ;
+		else{ //chow, pong, kong, ron
+			Action claim = queryClaim(from, tile) ;
+			if( claim != null )
+				return commitClaim(claim, tile) ;
+			return null ;
+		}
+	}
 
-				prevAct = new Action(PONG, discardList) ;
-				return prevAct ;
-			}
-			else
-				return null ;
+	/**
+	 * Decide a chamada sobre um descarte sem alterar a mão: ron, chow (só
+	 * do jogador anterior) ou pong, já com a peça que seria descartada.
+	 */
+	@Override
+	public Action queryClaim(int from, Tile tile){
+		if( doHu(tile) )
+			return winWith(RON, tile) ;
+		if( status == Status.RICHI )
+			return null ;
+		int index = tile.getIndex() ;
+		if( from == 3 && doChow(tile) ){
+			int flag = hand.chowable(tile) ;
+			int first = (flag & 0b001) > 0 ? index-2 : (flag & 0b010) > 0 ? index-1 : index ;
+			return meldClaim(CHOW, tile, first, first+1, first+2) ;
 		}
-		else{// pong, kong, ron
-			if( doHu(tile) ){ /* huable */
-				hand.add(tile) ;
-				prevTile = tile.copy() ;
-				return win(RON) ;
-			}
-			else if( status == Status.RICHI ){
-				prevAct = null ;
-				return prevAct ;
-			}
-			else if( doPong(tile) ){
-				hand.add(tile) ;
-				prevTile = tile.copy() ;
-				hand.discard(tile) ;
-				hand.discard(tile) ;
-				hand.discard(tile) ;
-				exposed++ ;
+		if( doPong(tile) )
+			return meldClaim(PONG, tile, index, index, index) ;
+		return null ;
+	}
 
-				Tile discardTile = decideDiscard(hand) ;
-				ArrayList<Tile> discardList = new ArrayList<Tile>() ;
-				discardList.add( discardTile ) ;
-				discardList.add(tile) ;
-				discardList.add(tile) ;
-				discardList.add(tile) ;
-				hand.discard( discardTile ) ;
+	/**
+	 * A pergunta roda numa cópia feita agora, na thread da mesa; se passar do
+	 * prazo, ela termina na cópia sem tocar nesta IA.
+	 */
+	@Override
+	public Supplier<Action> claimQuery(int from, Tile tile){
+		AI copy = copy() ;
+		return () -> copy.queryClaim(from, tile) ;
+	}
 
-				prevAct = new Action(PONG, discardList) ;
-				return prevAct ;
-			}
-			else
-				return null ;
-		}
+	/**
+	 * Cópia desta IA para {@link #claimQuery}.
+	 */
+	protected AI copy(){
+		return new AI(this) ;
 	}
 
-	//if chow/pong failed, use this method to notify player
-	// se chow/pong falhar, use este método para notificar o jogador
-	public void failed(){
-		if( exposed > 0 )
-			exposed-- ;
-		for( int i = 0 ; i < prevAct.getTiles().size() ; i++ )
-			hand.add( prevAct.getTiles().get(i) ) ;
-		hand.discard(prevTile) ;
+	/**
+	 * Aplica a chamada escolhida pela mesa: a peça entra na mão, o grupo é
+	 * exposto e a peça decidida em {@link #queryClaim} é descartada. A
+	 * própria chamada volta, porque o descarte já estava nela.
+	 */
+	@Override
+	public Action commitClaim(Action claim, Tile tile){
+		hand.add(tile) ;
+		if( claim.getType() == RON ){
+			status = Status.WIN ;
+			return claim ;
+		}
+		List<Tile> tiles = claim.getTiles() ;
+		for( int i = 1 ; i < tiles.size() ; i++ )
+			hand.discard(tiles.get(i)) ;
+		exposed++ ;
+		hand.discard(tiles.get(0)) ;
+		return claim ;
 	}
 
 	public void GameOver(int type, int from){
 		exposed = 0 ;
 		status = Status.FREE ;
-		prevTile = null ;
-		prevAct = null ;
 	}
 }
@@ -217,13 +217,9 @@ public class Action {
         return tiles.isEmpty();
     }
 
-    // Método para obter uma cópia defensiva dos tiles
+    // Método para obter uma cópia da lista (as peças são imutáveis e compartilhadas)
     public List<Tile> getTilesCopy() {
-        List<Tile> copy = new ArrayList<>();
-        for (Tile tile : tiles) {
-            copy.add(tile.copy());
-        }
-        return copy;
+        return new ArrayList<>(tiles);
     }
 
     // Métodos de verificação de tipo de ação
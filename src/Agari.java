@@ -0,0 +1,232 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Verificação de mão completa (和了) por consulta a um conjunto pré-computado.
+ *
+ * <p>A mão é reduzida à sua "forma": a sequência de blocos de peças
+ * consecutivas do mesmo naipe (cada honra é um bloco de uma peça). Cada tipo
+ * de peça presente ocupa 3 bits na chave: 2 bits para a quantidade (1-4) e
+ * 1 bit indicando se o bloco continua na próxima peça. Uma mão de até 14 peças
+ * cabe em um {@code long}.</p>
+ *
+ * <p>Como grupos e par nunca atravessam a fronteira de um bloco, uma mão está
+ * completa exatamente quando a sua forma é uma concatenação de blocos
+ * completos com um único par. Todas essas formas (para 2, 5, 8, 11 e 14
+ * peças) são geradas uma vez e guardadas em uma tabela hash de endereçamento
+ * aberto; a verificação custa a montagem da chave e uma sondagem.</p>
+ *
+ * <p>Sete pares e treze órfãos são testados antes, direto nas quantidades.</p>
+ */
+public final class Agari {
+
+	/** Maior número de peças em uma mão (sem contar peças de kong) */
+	private static final int MAX_TILES = 14;
+
+	private Agari(){
+	}
+
+	/**
+	 * Formas completas, geradas apenas no primeiro uso.
+	 */
+	private static final class Shapes {
+		static final long[] TABLE = build();
+		static final int SHIFT = 64 - Integer.numberOfTrailingZeros(TABLE.length);
+	}
+
+	/**
+	 * Verifica se a mão (3n+2 peças) está completa.
+	 *
+	 * @param counts Quantidade de cada tipo de peça (34 posições)
+	 * @return true se a mão está completa em qualquer uma das formas
+	 */
+	public static boolean isComplete(int[] counts){
+		return isCompleteWith(counts, -1);
+	}
+
+	/**
+	 * Verifica se a mão fica completa com uma peça a mais, sem alterá-la.
+	 *
+	 * <p>A chave de forma é montada na mesma passada que conta as peças; o
+	 * bit 1 inicial separa chaves de tamanhos diferentes e garante que
+	 * nenhuma chave válida é zero.</p>
+	 *
+	 * @param counts Quantidade de cada tipo de peça (3n+1 peças)
+	 * @param extra Índice da peça acrescentada, ou -1 para nenhuma
+	 * @return true se a mão com a peça extra está completa
+	 */
+	public static boolean isCompleteWith(int[] counts, int extra){
+		int total = 0;
+		int pairs = 0;
+		long key = 1;
+		int c = count(counts, extra, 0);
+		for(int i = 0; i < counts.length; i++){
+			int next = i + 1 < counts.length ? count(counts, extra, i + 1) : 0;
+			if(c > 0){
+				total += c;
+				if(c == 2) pairs++;
+				boolean run = next > 0 && i < 27 && i % 9 != 8;
+				key = key << 3 | (long)(c - 1) << 1 | (run ? 1 : 0);
+			}
+			c = next;
+		}
+		if(total % 3 != 2 || total > MAX_TILES) return false;
+		if(pairs == 7) return true;
+		if(total == MAX_TILES && isThirteenOrphans(counts, extra)) return true;
+		return contains(key);
+	}
+
+	/**
+	 * Verifica a forma de sete pares (七對子): sete tipos com duas peças cada.
+	 */
+	public static boolean isSevenPairs(int[] counts){
+		int pairs = 0;
+		for(int c : counts){
+			if(c == 2) pairs++;
+			else if(c != 0) return false;
+		}
+		return pairs == 7;
+	}
+
+	/**
+	 * Verifica a forma de treze órfãos (國士無雙).
+	 */
+	public static boolean isThirteenOrphans(int[] counts){
+		return isThirteenOrphans(counts, -1);
+	}
+
+	private static boolean isThirteenOrphans(int[] counts, int extra){
+		int total = 0;
+		boolean pair = false;
+		for(int i : Shanten.ORPHANS){
+			int c = count(counts, extra, i);
+			if(c == 0) return false;
+			if(c == 2) pair = true;
+			total += c;
+		}
+		return pair && total == MAX_TILES;
+	}
+
+	private static int count(int[] counts, int extra, int index){
+		return index == extra ? counts[index] + 1 : counts[index];
+	}
+
+	private static boolean contains(long key){
+		long[] table = Shapes.TABLE;
+		int mask = table.length - 1;
+		int slot = (int)((key * 0x9E3779B97F4A7C15L) >>> Shapes.SHIFT);
+		while(table[slot] != 0){
+			if(table[slot] == key) return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Gera todas as formas completas: primeiro os blocos completos (com ou
+	 * sem par), depois todas as concatenações desses blocos com exatamente
+	 * um par e 2, 5, 8, 11 ou 14 peças.
+	 */
+	private static long[] build(){
+		ArrayList<int[]> blocks = new ArrayList<int[]>();
+		for(int length = 1; length <= 9; length++){
+			collectBlocks(new int[length], 0, 0, blocks);
+		}
+
+		/* em ordem de tamanho, para parar a busca no primeiro bloco grande demais */
+		blocks.sort((a, b) -> Integer.compare(a[a.length - 2], b[b.length - 2]));
+
+		HashSet<Long> keys = new HashSet<Long>();
+		concatenate(blocks, 1L, MAX_TILES, false, keys);
+
+		int capacity = Integer.highestOneBit(keys.size() * 4);
+		long[] table = new long[capacity];
+		int shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		for(long key : keys){
+			int slot = (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+			while(table[slot] != 0){
+				slot = (slot + 1) & (capacity - 1);
+			}
+			table[slot] = key;
+		}
+		return table;
+	}
+
+	/**
+	 * Enumera blocos (quantidades 1-4 em posições consecutivas) e guarda os
+	 * completos. Cada bloco guardado é {quantidades..., total, tem par}.
+	 */
+	private static void collectBlocks(int[] block, int position, int total, ArrayList<int[]> blocks){
+		if(position == block.length){
+			if(total % 3 == 0 && decomposes(block.clone(), 0, false)){
+				blocks.add(withInfo(block, total, false));
+			}
+			else if(total % 3 == 2 && decomposes(block.clone(), 0, true)){
+				blocks.add(withInfo(block, total, true));
+			}
+			return;
+		}
+		for(int c = 1; c <= 4 && total + c <= MAX_TILES; c++){
+			block[position] = c;
+			collectBlocks(block, position + 1, total + c, blocks);
+		}
+	}
+
+	private static int[] withInfo(int[] block, int total, boolean pair){
+		int[] res = Arrays.copyOf(block, block.length + 2);
+		res[block.length] = total;
+		res[block.length + 1] = pair ? 1 : 0;
+		return res;
+	}
+
+	/**
+	 * Verifica se o bloco se decompõe em grupos (e um par, se pedido).
+	 */
+	private static boolean decomposes(int[] c, int from, boolean pair){
+		int i = from;
+		while(i < c.length && c[i] == 0) i++;
+		if(i == c.length) return !pair;
+		if(pair && c[i] >= 2){
+			c[i] -= 2;
+			boolean ok = decomposes(c, i, false);
+			c[i] += 2;
+			if(ok) return true;
+		}
+		if(c[i] >= 3){
+			c[i] -= 3;
+			boolean ok = decomposes(c, i, pair);
+			c[i] += 3;
+			if(ok) return true;
+		}
+		if(i + 2 < c.length && c[i+1] > 0 && c[i+2] > 0){
+			c[i]--;
+			c[i+1]--;
+			c[i+2]--;
+			boolean ok = decomposes(c, i, pair);
+			c[i]++;
+			c[i+1]++;
+			c[i+2]++;
+			if(ok) return true;
+		}
+		return false;
+	}
+
+	private static void concatenate(ArrayList<int[]> blocks, long key, int left, boolean pair, HashSet<Long> keys){
+		if(pair && left % 3 == 0){
+			keys.add(key);
+		}
+		for(int[] block : blocks){
+			int length = block.length - 2;
+			int total = block[length];
+			boolean blockPair = block[length + 1] == 1;
+			if(total > left) break;
+			if(pair && blockPair) continue;
+			long next = key;
+			for(int i = 0; i < length; i++){
+				next = next << 3 | (long)(block[i] - 1) << 1 | (i + 1 < length ? 1 : 0);
+			}
+			concatenate(blocks, next, left - total, pair || blockPair, keys);
+		}
+	}
+}
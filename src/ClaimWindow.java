@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Janela de chamadas de um descarte: pergunta aos outros três jogadores se
+ * querem a peça e escolhe quem leva.
+ *
+ * <p>Com um {@link Executor} os três são perguntados ao mesmo tempo, cada um
+ * com o mesmo prazo; quem não responde no prazo passa, e a resposta que
+ * chegar depois é descartada. Com prazo, cada pergunta roda sobre uma cópia
+ * do jogador feita na thread da mesa ({@link Player#claimQuery}), então
+ * uma pergunta abandonada não toca no jogador enquanto a mesa segue. Sem
+ * executor as perguntas são feitas em sequência na thread da mesa, como no
+ * jogo original.</p>
+ *
+ * <p>A escolha não depende da ordem das respostas: ron &gt; kong/pong &gt;
+ * chow, e todos os ron vencem juntos (ron duplo e triplo), listados na ordem
+ * de turno a partir do descartador. Em um empate de outra prioridade fica o
+ * jogador mais próximo na ordem de turno.</p>
+ *
+ * <p>As perguntas usam {@link Player#queryClaim}, que não altera a mão; só
+ * as chamadas escolhidas são aplicadas com {@link Player#commitClaim}, que
+ * devolve a chamada com o descarte, e as outras são avisadas com
+ * {@link Player#claimRejected}.</p>
+ */
+public class ClaimWindow {
+
+	private final Executor executor;
+
+	/** Prazo de cada resposta em milissegundos (0 = sem prazo) */
+	private final long timeout;
+
+	/** Resposta de cada assento no último descarte (null = passou) */
+	private final Action[] claims = new Action[4];
+
+	/**
+	 * Janela sequencial, sem prazo.
+	 */
+	public ClaimWindow(){
+		this(null, 0);
+	}
+
+	/**
+	 * @param executor Onde as perguntas rodam em paralelo, ou null para
+	 *        perguntar em sequência
+	 * @param timeout Prazo de cada resposta em milissegundos (0 = sem prazo);
+	 *        só vale com executor
+	 */
+	public ClaimWindow(Executor executor, long timeout){
+		if(timeout < 0){
+			throw new IllegalArgumentException("Prazo negativo: " + timeout);
+		}
+		this.executor = executor;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Prioridade de uma chamada: ron 3, kong ou pong 2, chow 1.
+	 */
+	static int priority(Action claim){
+		switch(claim.getType()){
+			case 7:	return 3;
+			case 2:
+			case 3:	return 2;
+			case 1:	return 1;
+			default: return 0;
+		}
+	}
+
+	/**
+	 * Oferece o descarte, escolhe as chamadas vencedoras e as aplica.
+	 *
+	 * @param player Os 4 jogadores, por assento
+	 * @param discarder Assento de quem descartou
+	 * @param tile Peça descartada
+	 * @param selected Recebe os assentos escolhidos, na ordem de turno
+	 * @return Quantidade de assentos escolhidos: 0 se ninguém chamou, mais de
+	 *         1 só em ron múltiplo
+	 */
+	public int open(Player[] player, int discarder, Tile tile, int[] selected){
+		if(executor == null){
+			for(int i = 1 ; i < 4 ; i++){
+				int p = (discarder+i)%4;
+				claims[p] = player[p].queryClaim(4-i, tile);
+			}
+		}
+		else{
+			ask(player, discarder, tile);
+		}
+		claims[discarder] = null;
+
+		int best = 0;
+		for(int i = 1 ; i < 4 ; i++){
+			Action claim = claims[(discarder+i)%4];
+			if(claim != null) best = Math.max(best, priority(claim));
+		}
+		int count = 0;
+		for(int i = 1 ; i < 4 ; i++){
+			int p = (discarder+i)%4;
+			Action claim = claims[p];
+			if(claim == null) continue;
+			if(priority(claim) == best && (count == 0 || best == 3)){
+				selected[count++] = p;
+			}
+			else{
+				player[p].claimRejected(claim);
+			}
+		}
+		for(int i = 0 ; i < count ; i++){
+			claims[selected[i]] = player[selected[i]].commitClaim(claims[selected[i]], tile);
+		}
+		return count;
+	}
+
+	/**
+	 * Resposta de um assento no último descarte.
+	 */
+	public Action getClaim(int seat){
+		return claims[seat];
+	}
+
+	/**
+	 * Pergunta aos três jogadores ao mesmo tempo e espera as respostas ou o
+	 * prazo.
+	 */
+	private void ask(Player[] player, int discarder, Tile tile){
+		/* posição i-1: o assento (discarder+i)%4 */
+		List<CompletableFuture<Action>> answers = new ArrayList<CompletableFuture<Action>>(3);
+		for(int i = 1 ; i < 4 ; i++){
+			int p = (discarder+i)%4;
+			int from = 4-i;
+			if(timeout == 0){
+				answers.add(CompletableFuture.supplyAsync(() -> player[p].queryClaim(from, tile), executor));
+			}
+			else{
+				/* a cópia é feita aqui, antes de a mesa seguir; a resposta atrasada fica com ela */
+				answers.add(CompletableFuture.supplyAsync(player[p].claimQuery(from, tile), executor)
+						.completeOnTimeout(null, timeout, TimeUnit.MILLISECONDS));
+			}
+		}
+		try {
+			CompletableFuture.allOf(answers.toArray(new CompletableFuture<?>[0])).join();
+		} catch(CompletionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+			throw e;
+		}
+		for(int i = 1 ; i < 4 ; i++){
+			claims[(discarder+i)%4] = answers.get(i-1).join();
+		}
+	}
+}
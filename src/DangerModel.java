@@ -0,0 +1,177 @@
+import java.util.Arrays;
+
+/**
+ * Risco de dar ron (放銃) com cada peça, por oponente, a partir dos descartes
+ * da mesa.
+ *
+ * <p>A {@link GameEngine} avisa cada descarte com {@link #discarded}; o
+ * modelo guarda, por assento, uma máscara de 34 bits das peças seguras
+ * contra ele (現物, genbutsu): os seus próprios descartes e, depois do seu
+ * riichi, os descartes de todos, que ele deixou passar. Cada descarte custa
+ * algumas operações de bits e nenhuma varredura do rio. O risco de uma peça
+ * é calculado na consulta, em tempo constante:</p>
+ * <ul>
+ *   <li>genbutsu: 0;</li>
+ *   <li>honras: pelas cópias visíveis (com 3 visíveis só resta espera
+ *       única);</li>
+ *   <li>números: cada lado de espera de duas pontas (両面) que pode existir
+ *       soma {@link #RYANMEN}; um lado fecha se a peça a três casas é
+ *       genbutsu (筋, suji) ou se uma das duas peças do par de espera tem as
+ *       4 cópias visíveis (壁, kabe). Esperas de canto, fechadas e em par
+ *       somam um valor menor pela posição da peça;</li>
+ *   <li>momento do riichi: num riichi cedo (até {@link #EARLY_RIICHI}
+ *       descartes) o suji fecha só parte do lado, porque o rio ainda diz
+ *       pouco sobre a mão.</li>
+ * </ul>
+ *
+ * <p>Os valores são relativos, na escala de uma peça do meio sem nenhuma
+ * informação (cerca de 10). Um modelo é compartilhado pelos quatro
+ * assentos da mesa; os jogadores só consultam.</p>
+ */
+public final class DangerModel {
+
+	/** Risco de cada lado de espera de duas pontas aberto */
+	public static final double RYANMEN = 4;
+
+	/** Descartes até o riichi para ele contar como cedo */
+	public static final int EARLY_RIICHI = 6;
+
+	/** Fração do lado que continua aberta com suji num riichi cedo */
+	private static final double EARLY_SUJI = 0.25;
+
+	/** Risco de honra por cópias visíveis (0-3); com 4 não há espera */
+	private static final double[] HONOR = {8, 5, 2, 0.5};
+
+	/** Risco das outras esperas (canto, fechada, em par) por valor 1-9 */
+	private static final double[] OTHER = {1, 1.5, 2, 2, 2, 2, 2, 1.5, 1};
+
+	private final VisibleTiles visible;
+
+	/** Peças seguras contra cada assento, um bit por tipo */
+	private final long[] safe;
+
+	/** Descartes de cada assento nesta mão */
+	private final int[] discards;
+
+	/** Descartes do assento até o riichi, ou -1 sem riichi */
+	private final int[] riichiAt;
+
+	/** Assentos em riichi, um bit por assento */
+	private int riichi;
+
+	/**
+	 * @param visible Peças visíveis da mesa, para o kabe e as honras
+	 */
+	public DangerModel(VisibleTiles visible){
+		this.visible = visible;
+		safe = new long[4];
+		discards = new int[4];
+		riichiAt = new int[4];
+		reset();
+	}
+
+	/**
+	 * Cópia do modelo, que não muda com o original.
+	 *
+	 * @param visible Peças visíveis da cópia
+	 */
+	public DangerModel(DangerModel other, VisibleTiles visible){
+		this.visible = visible;
+		safe = other.safe.clone();
+		discards = other.discards.clone();
+		riichiAt = other.riichiAt.clone();
+		riichi = other.riichi;
+	}
+
+	/**
+	 * Limpa o modelo no início de uma mão.
+	 */
+	public void reset(){
+		Arrays.fill(safe, 0);
+		Arrays.fill(discards, 0);
+		Arrays.fill(riichiAt, -1);
+		riichi = 0;
+	}
+
+	/**
+	 * Registra um descarte.
+	 *
+	 * @param seat Assento que descartou
+	 * @param tile Peça descartada
+	 * @param declare true se o descarte declara riichi
+	 */
+	public void discarded(int seat, Tile tile, boolean declare){
+		long bit = 1L << tile.getIndex();
+		safe[seat] |= bit;
+		/* quem está em riichi e não fez ron não pode mais fazer com esta peça */
+		int others = riichi & ~(1 << seat);
+		for(int s = 0; s < 4; s++){
+			if((others & 1 << s) != 0) safe[s] |= bit;
+		}
+		if(declare && riichiAt[seat] < 0){
+			riichiAt[seat] = discards[seat];
+			riichi |= 1 << seat;
+		}
+		discards[seat]++;
+	}
+
+	public boolean isRiichi(int seat){
+		return (riichi & 1 << seat) != 0;
+	}
+
+	/**
+	 * Verifica se algum oponente do assento está em riichi.
+	 */
+	public boolean anyRiichi(int self){
+		return (riichi & ~(1 << self)) != 0;
+	}
+
+	/**
+	 * Verifica se a peça é genbutsu contra o assento.
+	 */
+	public boolean isSafe(int seat, int tile){
+		return (safe[seat] & 1L << tile) != 0;
+	}
+
+	/**
+	 * Risco de dar ron ao assento com a peça.
+	 *
+	 * @param seat Oponente
+	 * @param tile Índice da peça (0-33)
+	 */
+	public double danger(int seat, int tile){
+		if(isSafe(seat, tile)) return 0;
+		if(tile >= 27) return HONOR[Math.min(3, visible.getCount(tile))];
+		int value = tile % 9;
+		double suji = riichiAt[seat] >= 0 && riichiAt[seat] <= EARLY_RIICHI ? EARLY_SUJI : 0;
+		double res = OTHER[value];
+		/* lado de baixo: espera em (value-3, value) com o par value-2, value-1 */
+		if(value >= 3 && !wall(tile - 2) && !wall(tile - 1)){
+			res += RYANMEN * (isSafe(seat, tile - 3) ? suji : 1);
+		}
+		/* lado de cima: espera em (value, value+3) com o par value+1, value+2 */
+		if(value <= 5 && !wall(tile + 1) && !wall(tile + 2)){
+			res += RYANMEN * (isSafe(seat, tile + 3) ? suji : 1);
+		}
+		return res;
+	}
+
+	/**
+	 * Risco somado contra todos os oponentes em riichi.
+	 *
+	 * @param self Assento de quem vai descartar
+	 * @param tile Índice da peça (0-33)
+	 */
+	public double riichiDanger(int self, int tile){
+		double res = 0;
+		for(int s = 0; s < 4; s++){
+			if(s != self && isRiichi(s)) res += danger(s, tile);
+		}
+		return res;
+	}
+
+	/** Kabe: as 4 cópias da peça estão visíveis */
+	private boolean wall(int tile){
+		return visible.getCount(tile) >= 4;
+	}
+}
@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Enumerador de todas as decomposições de uma mão completa em grupos (順子 e
+ * 刻子) e um par, base para a pontuação.
+ *
+ * <p>Como nenhum grupo atravessa naipes, a decomposição da mão é o produto
+ * das decomposições de cada naipe. Para cada chave de naipe (as quantidades na
+ * base 5, como em {@link Shanten}) que se decompõe por completo, as
+ * decomposições são geradas uma única vez e guardadas em tabelas ordenadas:
+ * um vetor de chaves e um vetor plano com as decomposições de cada chave. A
+ * enumeração faz uma busca binária por naipe e percorre as combinações sem
+ * criar listas; cada decomposição é entregue a um {@link Visitor}.</p>
+ *
+ * <p>Só a forma padrão é enumerada; sete pares e treze órfãos são testados à
+ * parte ({@link Agari#isSevenPairs}, {@link Agari#isThirteenOrphans}).</p>
+ */
+public final class Decomposer {
+
+	/** Bit que marca um grupo como sequência (順子); sem ele é trinca (刻子) */
+	public static final int CHOW = 1 << 6;
+
+	/** Máscara do índice da primeira peça do grupo */
+	private static final int FIRST = CHOW - 1;
+
+	/** Maior número de grupos em uma mão */
+	public static final int MAX_MELDS = 4;
+
+	private Decomposer(){
+	}
+
+	/**
+	 * Recebe cada decomposição encontrada.
+	 */
+	public interface Visitor {
+		/**
+		 * @param melds Grupos da decomposição (ver {@link #first}, {@link #isChow});
+		 *              o vetor é reutilizado e não deve ser guardado
+		 * @param count Quantidade de grupos válidos em {@code melds}
+		 * @param pair Índice da peça do par
+		 */
+		void visit(int[] melds, int count, int pair);
+	}
+
+	/**
+	 * Índice da primeira (menor) peça do grupo.
+	 */
+	public static int first(int meld){
+		return meld & FIRST;
+	}
+
+	public static boolean isChow(int meld){
+		return (meld & CHOW) != 0;
+	}
+
+	/**
+	 * Verifica se o grupo contém a peça de índice {@code index}.
+	 */
+	public static boolean contains(int meld, int index){
+		int first = meld & FIRST;
+		return isChow(meld) ? index >= first && index <= first + 2 : index == first;
+	}
+
+	/**
+	 * Tabelas de decomposição de um naipe, geradas apenas no primeiro uso.
+	 *
+	 * <p>Cada decomposição de naipe é um {@code int}: bits 0-3 o valor do par
+	 * mais 1 (0 = sem par), bits 4-6 a quantidade de grupos e, a partir do bit
+	 * 7, 5 bits por grupo (valor 0-8 e o bit de sequência).</p>
+	 */
+	private static final class Table {
+		final int[] keys;
+		final int[] start;
+		final int[] data;
+
+		static final Table NUMBER = new Table(9, true);
+		static final Table HONOR = new Table(7, false);
+
+		private Table(int size, boolean chows){
+			HashMap<Integer, ArrayList<Integer>> found = new HashMap<Integer, ArrayList<Integer>>();
+			int[] counts = new int[size];
+			for(int pair = -1; pair < size; pair++){
+				if(pair >= 0) counts[pair] += 2;
+				collect(counts, pair, 0, 0, 0, chows, found);
+				if(pair >= 0) counts[pair] -= 2;
+			}
+
+			keys = new int[found.size()];
+			int i = 0;
+			int total = 0;
+			for(int key : found.keySet()){
+				keys[i++] = key;
+				total += found.get(key).size();
+			}
+			Arrays.sort(keys);
+			start = new int[keys.length + 1];
+			data = new int[total];
+			int at = 0;
+			for(i = 0; i < keys.length; i++){
+				start[i] = at;
+				for(int d : found.get(keys[i])) data[at++] = d;
+			}
+			start[keys.length] = at;
+		}
+
+		/**
+		 * Acrescenta grupos em ordem não decrescente (trincas 0..size-1,
+		 * sequências size..size+6), para gerar cada decomposição uma vez.
+		 */
+		private static void collect(int[] counts, int pair, int melds, int from, int code, boolean chows,
+				HashMap<Integer, ArrayList<Integer>> found){
+			int key = 0;
+			for(int v = counts.length - 1; v >= 0; v--) key = key * 5 + counts[v];
+			found.computeIfAbsent(key, k -> new ArrayList<Integer>()).add(code | melds << 4 | (pair + 1));
+			if(melds == MAX_MELDS) return;
+
+			int types = chows ? counts.length + 7 : counts.length;
+			for(int t = from; t < types; t++){
+				boolean chow = t >= counts.length;
+				int v = chow ? t - counts.length : t;
+				if(!add(counts, v, chow, 1)){
+					add(counts, v, chow, -1);
+					continue;
+				}
+				int meld = v | (chow ? 16 : 0);
+				collect(counts, pair, melds + 1, t, code | meld << (7 + 5 * melds), chows, found);
+				add(counts, v, chow, -1);
+			}
+		}
+
+		private static boolean add(int[] counts, int v, boolean chow, int delta){
+			boolean ok = true;
+			if(chow){
+				for(int j = v; j < v + 3; j++){
+					counts[j] += delta;
+					ok &= counts[j] <= 4;
+				}
+			}
+			else{
+				counts[v] += 3 * delta;
+				ok = counts[v] <= 4;
+			}
+			return ok;
+		}
+	}
+
+	/**
+	 * Enumera as decomposições da forma padrão de uma mão (3n+2 peças).
+	 *
+	 * @param counts Quantidade de cada tipo de peça da parte fechada (34 posições)
+	 * @param visitor Recebe cada decomposição
+	 * @return Número de decomposições encontradas (0 se a mão não está completa)
+	 */
+	public static int forEach(int[] counts, Visitor visitor){
+		int[] slot = new int[4];
+		for(int suit = 0; suit < 4; suit++){
+			Table table = suit == 3 ? Table.HONOR : Table.NUMBER;
+			slot[suit] = Arrays.binarySearch(table.keys, Shanten.suitKey(counts, suit));
+			if(slot[suit] < 0) return 0;
+		}
+		return visit(slot, 0, new int[MAX_MELDS], 0, -1, visitor);
+	}
+
+	private static int visit(int[] slot, int suit, int[] melds, int count, int pair, Visitor visitor){
+		if(suit == 4){
+			if(pair < 0) return 0;
+			visitor.visit(melds, count, pair);
+			return 1;
+		}
+		Table table = suit == 3 ? Table.HONOR : Table.NUMBER;
+		int base = suit * 9;
+		int res = 0;
+		for(int i = table.start[slot[suit]]; i < table.start[slot[suit] + 1]; i++){
+			int d = table.data[i];
+			int suitPair = (d & 0xF) - 1;
+			if(suitPair >= 0 && pair >= 0) continue;
+			int n = d >> 4 & 0x7;
+			if(count + n > MAX_MELDS) continue;
+			for(int m = 0; m < n; m++){
+				int meld = d >> (7 + 5 * m) & 0x1F;
+				melds[count + m] = base + (meld & 0xF) | ((meld & 16) != 0 ? CHOW : 0);
+			}
+			res += visit(slot, suit + 1, melds, count + n, suitPair >= 0 ? base + suitPair : pair, visitor);
+		}
+		return res;
+	}
+}
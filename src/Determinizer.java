@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sorteio de determinizações da informação escondida: as mãos fechadas dos
+ * oponentes e a ordem do muro, entre as peças que o jogador não viu.
+ *
+ * <p>As peças não vistas vêm de um vetor de 34 quantidades (4 cópias menos
+ * as da mesa, da própria mão e de quaisquer outras peças conhecidas) e são
+ * guardadas uma vez como um baralho de até 136 entradas. Cada amostra é um
+ * Fisher-Yates parcial só nas posições que serão usadas: O(peças
+ * sorteadas), sem laço de rejeição, porque toda permutação do baralho é
+ * consistente com o que foi visto, e sem alocação. Como o embaralhamento
+ * parte de qualquer ordem, a amostra seguinte continua do baralho da
+ * anterior.</p>
+ *
+ * <p>Depois de {@link #sample}, as posições 0 .. n-1 são a determinização:
+ * as mãos são lidas em sequência com {@link #deal} e o muro com
+ * {@link #tile}. Os tamanhos das mãos são os de cada assento, que a mesa
+ * compartilha em {@link HandSizes}.</p>
+ *
+ * <p>Uma instância não é thread-safe; cada worker usa a sua.</p>
+ *
+ * <p>Uso: {@code java Determinizer [amostras]} mede a vazão.</p>
+ */
+public final class Determinizer {
+
+	/** Peças de um jogo */
+	public static final int TILES = Hand.KINDS * 4;
+
+	private final int[] deck = new int[TILES];
+
+	private int size;
+
+	/**
+	 * Troca as peças não vistas. O(34 + peças).
+	 *
+	 * @param unseen Cópias não vistas de cada peça (0-4), 34 posições
+	 * @throws IllegalArgumentException se alguma quantidade está fora de 0-4
+	 */
+	public void reset(int[] unseen){
+		int n = 0;
+		for(int i = 0; i < Hand.KINDS; i++){
+			int c = unseen[i];
+			if(c < 0 || c > 4){
+				throw new IllegalArgumentException("Quantidade inválida da peça " + i + ": " + c);
+			}
+			for(int k = 0; k < c; k++) deck[n++] = i;
+		}
+		size = n;
+	}
+
+	/**
+	 * Peças não vistas.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Sorteia uma determinização das primeiras {@code n} posições.
+	 *
+	 * @param random Gerador da thread
+	 * @param n Peças usadas pela amostra (mãos e muro); limitado ao tamanho
+	 * @return Peças sorteadas
+	 */
+	public int sample(RandomGenerator random, int n){
+		n = Math.min(n, size);
+		for(int i = 0; i < n; i++){
+			int j = i + random.nextInt(size - i);
+			int t = deck[i];
+			deck[i] = deck[j];
+			deck[j] = t;
+		}
+		return n;
+	}
+
+	/**
+	 * Lê uma mão da amostra.
+	 *
+	 * @param offset Primeira posição da mão
+	 * @param count Tamanho da mão
+	 * @param counts Recebe a quantidade de cada peça (é zerado antes), 34 posições
+	 * @return A posição seguinte à mão
+	 */
+	public int deal(int offset, int count, int[] counts){
+		Arrays.fill(counts, 0);
+		int end = offset + count;
+		for(int i = offset; i < end; i++) counts[deck[i]]++;
+		return end;
+	}
+
+	/**
+	 * Peça na posição da amostra.
+	 */
+	public int tile(int i){
+		return deck[i];
+	}
+
+	public static void main(String args[]){
+		long samples = args.length > 0 ? Long.parseLong(args[0]) : 10000000;
+		int[] unseen = new int[Hand.KINDS];
+		Arrays.fill(unseen, 3);
+		Determinizer determinizer = new Determinizer();
+		determinizer.reset(unseen);
+		SplittableRandom random = new SplittableRandom(42);
+		int[] counts = new int[Hand.KINDS];
+		int used = determinizer.size() - Wall.DEAD_WALL;
+		long check = 0;
+		long start = System.nanoTime();
+		for(long s = 0; s < samples; s++){
+			determinizer.sample(random, used);
+			int k = 0;
+			for(int seat = 1; seat < 4; seat++){
+				k = determinizer.deal(k, 13, counts);
+				check += counts[seat];
+			}
+			check += determinizer.tile(k);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("amostras=%d peças/amostra=%d tempo=%.2fs amostras/s=%.0f (%d)%n",
+				samples, used, seconds, samples / seconds, check);
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Avaliação de uma mão compactada em um {@code long}: shanten, esperas e
+ * mão completa, calculados de uma vez.
+ *
+ * <p>O formato é:</p>
+ * <ul>
+ * <li>bits 0-33: para 3n+1 peças, as esperas ({@link Waits}); para 3n+2
+ * peças, os descartes que deixam a mão em tenpai;</li>
+ * <li>bits 40-47: shanten + 1;</li>
+ * <li>bit 48: mão completa ({@link Agari}).</li>
+ * </ul>
+ *
+ * <p>O cálculo não aloca nada e não passa por cache: numa mesa as mãos
+ * quase não se repetem.</p>
+ */
+public final class Evaluation {
+
+	private static final long MASK_BITS = (1L << Hand.KINDS) - 1;
+	private static final int SHANTEN_SHIFT = 40;
+	private static final long COMPLETE_BIT = 1L << 48;
+
+	private Evaluation(){
+	}
+
+	/**
+	 * Avalia as quantidades.
+	 *
+	 * @param counts Quantidade de cada tipo de peça (até 14 peças); alterado
+	 *               durante o cálculo de 3n+2 peças e restaurado antes de
+	 *               retornar
+	 * @return Avaliação compactada
+	 */
+	public static long compute(int[] counts){
+		int total = 0;
+		for(int c : counts) total += c;
+		int shanten = Shanten.calculate(counts);
+		long mask;
+		boolean complete = false;
+		if(total % 3 == 2){
+			complete = Agari.isComplete(counts);
+			mask = 0;
+			/* um descarte nunca reduz o shanten: só uma mão com 0 ou -1 chega ao tenpai */
+			for(int i = 0; shanten <= 0 && i < counts.length; i++){
+				if(counts[i] == 0) continue;
+				counts[i]--;
+				if(Shanten.calculate(counts) == 0 && Waits.mask(counts) != 0) mask |= 1L << i;
+				counts[i]++;
+			}
+		}
+		else{
+			mask = Waits.mask(counts);
+		}
+		return mask | (long)(shanten + 1) << SHANTEN_SHIFT | (complete ? COMPLETE_BIT : 0);
+	}
+
+	/**
+	 * Máscara de 34 bits da avaliação: esperas (3n+1 peças) ou descartes que
+	 * deixam a mão em tenpai (3n+2 peças).
+	 */
+	public static long mask(long evaluation){
+		return evaluation & MASK_BITS;
+	}
+
+	public static int shanten(long evaluation){
+		return (int)((evaluation >>> SHANTEN_SHIFT) & 0xFF) - 1;
+	}
+
+	public static boolean isComplete(long evaluation){
+		return (evaluation & COMPLETE_BIT) != 0;
+	}
+}
@@ -0,0 +1,309 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Planejador de descartes por expectimax sobre as próximas compras, um meio
+ * termo entre a heurística da {@link AI} e o {@link MonteCarloPlayer}.
+ *
+ * <p>O valor de uma mão com 3n+1 peças a {@code p} lances do fim é a média,
+ * ponderada pelas cópias vivas de cada peça, do valor da mão depois de
+ * comprar a peça e fazer o melhor descarte; com {@code p = 0}, ou com a mão
+ * completa, o valor é {@code -shanten} (uma mão completa vale 1). Com um
+ * lance o valor é {@code -shanten} mais a chance de a compra reduzir o
+ * shanten, calculada direto pela aceitação ({@link Ukeire}) sem abrir as
+ * compras; com dois ou três, entra também a qualidade das mãos e esperas
+ * que se formam depois.</p>
+ *
+ * <p>Para caber em poucos milissegundos por decisão:</p>
+ * <ul>
+ *   <li>só os descartes que mantêm o menor shanten são explorados, na raiz
+ *       e dentro da árvore;</li>
+ *   <li>as compras isoladas (peças sem cópia nem vizinha a até duas casas
+ *       na mão) são agrupadas em um só ramo, em que a peça comprada volta
+ *       para o rio; assim o progresso de treze órfãos por tipos novos é
+ *       ignorado;</li>
+ *   <li>os valores são memorizados pela chave da mão (Zobrist das
+ *       quantidades, atualizado a cada peça) e pela profundidade restante;</li>
+ *   <li>o shanten vem da {@link Hand} incremental, alterada uma peça por
+ *       vez.</li>
+ * </ul>
+ *
+ * <p>As cópias vivas partem das da raiz (4 menos as da mesa e da própria
+ * mão) e descontam as compras do caminho; a memória ignora essa diferença
+ * entre caminhos que chegam à mesma mão. Uma instância não é thread-safe;
+ * cada jogador usa a sua.</p>
+ *
+ * <p>À mesa (o {@link SelfPlay} e o {@link TableHost} com planejadores) a
+ * profundidade é a padrão, 2: cerca de 4 ms por decisão. A profundidade 3
+ * custa cerca de 84 ms por decisão e é só para medições offline com o
+ * {@code main}.</p>
+ *
+ * <p>Uso: {@code java ExpectimaxPlanner [mãos] [profundidade]} joga uma mesa
+ * com uma {@link AI} com o planejador no assento 0 contra três sem.</p>
+ */
+public final class ExpectimaxPlanner {
+
+	/** Lances (compra e descarte) por padrão: poucos milissegundos por decisão */
+	public static final int DEFAULT_DEPTH = 2;
+
+	/** Maior profundidade; com 3 uma decisão leva dezenas de milissegundos, só para uso offline */
+	public static final int MAX_DEPTH = 3;
+
+	/** Valor de uma mão completa */
+	private static final double WIN = 1;
+
+	private static final int MEMO_BITS = 16;
+
+	private static final int MEMO_MASK = (1 << MEMO_BITS) - 1;
+
+	/** Chave de cada quantidade (0-4) de cada peça */
+	private static final long[][] ZOBRIST = new long[Hand.KINDS][5];
+
+	/** Chave de cada profundidade restante */
+	private static final long[] PLY = new long[MAX_DEPTH + 1];
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x4d61686a6f6e67L);
+		for(int i = 0; i < Hand.KINDS; i++){
+			for(int c = 0; c < 5; c++) ZOBRIST[i][c] = random.nextLong();
+		}
+		for(int p = 0; p <= MAX_DEPTH; p++) PLY[p] = random.nextLong();
+	}
+
+	private final int depth;
+
+	private final Hand hand = new Hand();
+
+	/** Quantidades da mão atual, para o {@link Ukeire} */
+	private final int[] handCounts = new int[Hand.KINDS];
+
+	/** Chave da mão atual */
+	private long key;
+
+	private final int[] live = new int[Hand.KINDS];
+
+	private int totalLive;
+
+	private final int[] shanten = new int[Hand.KINDS];
+
+	/* memória por endereçamento direto, invalidada a cada decisão pelo selo */
+	private final long[] memoKeys = new long[1 << MEMO_BITS];
+	private final double[] memoValues = new double[1 << MEMO_BITS];
+	private final int[] memoStamps = new int[1 << MEMO_BITS];
+	private int stamp;
+
+	private long nodes;
+
+	private long decisions;
+
+	private long nanos;
+
+	public ExpectimaxPlanner(){
+		this(DEFAULT_DEPTH);
+	}
+
+	/**
+	 * @param depth Lances explorados depois do descarte (1-3)
+	 */
+	public ExpectimaxPlanner(int depth){
+		if(depth < 1 || depth > MAX_DEPTH){
+			throw new IllegalArgumentException("Profundidade inválida: " + depth);
+		}
+		this.depth = depth;
+	}
+
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Mãos avaliadas (fora da memória), somadas em todas as decisões.
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Decisões tomadas.
+	 */
+	public long getDecisions(){
+		return decisions;
+	}
+
+	/**
+	 * Tempo somado das decisões, em nanossegundos.
+	 */
+	public long getNanos(){
+		return nanos;
+	}
+
+	/**
+	 * Avalia os descartes de uma mão com 3n+2 peças.
+	 *
+	 * @param counts Quantidade de cada peça (não é alterado)
+	 * @param visible Peças visíveis na mesa, ou null para ignorar a mesa
+	 * @param values Saída com 34 posições: o valor de cada descarte, ou
+	 *        {@link Double#NEGATIVE_INFINITY} para tipos ausentes e descartes
+	 *        que pioram o shanten
+	 * @return Índice do melhor descarte (no empate, o menor índice)
+	 */
+	public int plan(int[] counts, VisibleTiles visible, double[] values){
+		long start = System.nanoTime();
+		load(counts);
+		totalLive = 0;
+		for(int i = 0; i < Hand.KINDS; i++){
+			live[i] = Math.max(0, 4 - (visible == null ? 0 : visible.getCount(i)) - counts[i]);
+			totalLive += live[i];
+		}
+		if(++stamp == 0){
+			Arrays.fill(memoStamps, 0);
+			stamp = 1;
+		}
+
+		int min = Integer.MAX_VALUE;
+		for(int d = 0; d < Hand.KINDS; d++){
+			shanten[d] = Integer.MAX_VALUE;
+			if(counts[d] == 0) continue;
+			remove(d);
+			shanten[d] = hand.getShanten();
+			add(d);
+			min = Math.min(min, shanten[d]);
+		}
+		int best = -1;
+		for(int d = 0; d < Hand.KINDS; d++){
+			values[d] = Double.NEGATIVE_INFINITY;
+			if(shanten[d] != min) continue;
+			remove(d);
+			values[d] = value(depth);
+			add(d);
+			if(best < 0 || values[d] > values[best]) best = d;
+		}
+		decisions++;
+		nanos += System.nanoTime() - start;
+		return best;
+	}
+
+	/** Deixa a mão do planejador igual às quantidades */
+	private void load(int[] target){
+		for(int t = 0; t < Hand.KINDS; t++){
+			while(handCounts[t] > target[t]) remove(t);
+			while(handCounts[t] < target[t]) add(t);
+		}
+	}
+
+	private void add(int t){
+		int c = handCounts[t]++;
+		key ^= ZOBRIST[t][c] ^ ZOBRIST[t][c + 1];
+		hand.add(Tile.of(t));
+	}
+
+	private void remove(int t){
+		int c = handCounts[t]--;
+		key ^= ZOBRIST[t][c] ^ ZOBRIST[t][c - 1];
+		hand.discard(Tile.of(t));
+	}
+
+	/**
+	 * Valor da mão atual (3n+1 peças) a {@code plies} lances do fim.
+	 */
+	private double value(int plies){
+		if(plies == 0 || totalLive == 0) return -hand.getShanten();
+		long k = key ^ PLY[plies];
+		int slot = (int)(k ^ k >>> 32) & MEMO_MASK;
+		if(memoStamps[slot] == stamp && memoKeys[slot] == k) return memoValues[slot];
+		nodes++;
+		double v = plies == 1 ? oneDraw() : expand(plies);
+		memoStamps[slot] = stamp;
+		memoKeys[slot] = k;
+		memoValues[slot] = v;
+		return v;
+	}
+
+	/**
+	 * Um lance sem explorar: a compra reduz o shanten em um (ou completa a
+	 * mão, que vale 1) com a probabilidade da aceitação, senão não muda.
+	 */
+	private double oneDraw(){
+		return -hand.getShanten() + (double)Ukeire.count(handCounts, live) / totalLive;
+	}
+
+	/** Média sobre as compras do melhor descarte */
+	private double expand(int plies){
+		double sum = 0;
+		int isolated = 0;
+		for(int t = 0; t < Hand.KINDS; t++){
+			if(live[t] == 0) continue;
+			if(isolated(t)){
+				isolated += live[t];
+				continue;
+			}
+			int weight = live[t];
+			int total = totalLive;
+			live[t]--;
+			totalLive--;
+			add(t);
+			sum += weight * bestDiscard(plies);
+			remove(t);
+			live[t]++;
+			totalLive = total;
+		}
+		if(isolated > 0) sum += isolated * value(plies - 1);
+		return sum / totalLive;
+	}
+
+	/**
+	 * Valor do melhor descarte da mão atual (3n+2 peças), explorando só os
+	 * descartes que mantêm o menor shanten.
+	 */
+	private double bestDiscard(int plies){
+		int target = hand.getShanten();
+		if(target < 0) return WIN;
+		double best = Double.NEGATIVE_INFINITY;
+		for(int d = 0; d < Hand.KINDS; d++){
+			if(handCounts[d] == 0) continue;
+			remove(d);
+			if(hand.getShanten() <= target) best = Math.max(best, value(plies - 1));
+			add(d);
+		}
+		return best;
+	}
+
+	/** Peça sem cópia nem vizinha a até duas casas na mão */
+	private boolean isolated(int t){
+		if(handCounts[t] > 0) return false;
+		if(t >= 27) return true;
+		int value = t % 9;
+		for(int v = Math.max(0, value - 2); v <= Math.min(8, value + 2); v++){
+			if(handCounts[t - value + v] > 0) return false;
+		}
+		return true;
+	}
+
+	public static void main(String args[]){
+		long hands = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+		AI planned = new AI("Expectimax", GameEngine.INIT_SCORE);
+		ExpectimaxPlanner planner = new ExpectimaxPlanner(depth);
+		planned.setPlanner(planner);
+		Player[] player = new Player[4];
+		player[0] = planned;
+		for(int i = 1 ; i < 4 ; i++){
+			player[i] = new AI("AI"+i, GameEngine.INIT_SCORE);
+		}
+		GameEngine engine = new GameEngine(player, 2, null);
+		long start = System.nanoTime();
+		while(engine.getHandsPlayed() < hands){
+			if(engine.isFinished()) engine.restart();
+			engine.playHand();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int[] scores = engine.getScores();
+		double others = (scores[1] + scores[2] + scores[3]) / 3.0 - GameEngine.INIT_SCORE;
+		System.out.printf("mãos=%d profundidade=%d tempo=%.1fs decisões=%d média=%.2fms nós/decisão=%.0f%n",
+				hands, depth, seconds, planner.getDecisions(),
+				planner.getDecisions() == 0 ? 0 : planner.getNanos() / 1e6 / planner.getDecisions(),
+				planner.getDecisions() == 0 ? 0 : (double)planner.getNodes() / planner.getDecisions());
+		System.out.printf("pontos por mão: Expectimax=%+.0f AI=%+.0f%n",
+				(scores[0] - GameEngine.INIT_SCORE) / (double)hands, others / hands);
+	}
+}
@@ -0,0 +1,567 @@
+import java.util.*;
+
+/**
+ * Motor de uma mesa de Mahjong, sem dependência de interface gráfica.
+ *
+ * <p>Cada instância tem o seu próprio estado (vento, mão, dealer, muro,
+ * peças visíveis, grupos e depósitos de riichi), então várias mesas podem
+ * rodar na mesma JVM. O progresso é informado a um {@link GameListener}
+ * opcional; sem observador o motor apenas joga.</p>
+ *
+ * <p>O fluxo de cada mão é o mesmo do jogo original: o dealer compra, cada
+ * descarte é oferecido aos outros três jogadores por uma {@link ClaimWindow}
+ * e a chamada de maior prioridade (ron &gt; kong/pong &gt; chow) é executada;
+ * as outras são avisadas com {@link Player#claimRejected}. Vários ron no mesmo
+ * descarte vencem juntos.</p>
+ *
+ * <p>Uma mão é uma máquina de estados ({@link Phase}): cada
+ * {@link #advance()} faz uma transição e a informa ao observador
+ * ({@link GameListener#phaseChanged}), e {@link #step()} avança até a
+ * próxima compra. Nenhuma transição depende de a mão ter uma thread só
+ * para ela.</p>
+ */
+public class GameEngine {
+
+	/**
+	 * Fases de uma mão.
+	 */
+	public enum Phase {
+		/** Sem mão em andamento; {@link #beginHand()} distribui as peças */
+		HAND_OVER,
+		/** O jogador da vez compra do muro vivo ou do muro morto */
+		DRAW,
+		/** O jogador da vez decide a ação com a peça comprada */
+		DECIDE,
+		/** A ação pendente é executada */
+		RESOLVE,
+		/** A peça descartada é oferecida aos outros três jogadores */
+		CLAIM_WINDOW
+	}
+
+	/** Pontuação inicial de cada jogador */
+	public static final int INIT_SCORE = 25000;
+
+	private static final GameListener NO_LISTENER = new GameListener(){};
+
+	private final Player[] player;
+
+	private final GameListener listener;
+
+	/** Número de ventos da partida (1 = 東風戰, 2 = 東南戰) */
+	private final int rounds;
+
+	/** Vento atual (0=Leste, 1=Sul, 2=Oeste, 3=Norte) */
+	private int wind;
+
+	/** Mão atual dentro do vento (0-3) */
+	private int game;
+
+	/** Assento do dealer da primeira mão */
+	private int dealer;
+
+	private final Shuffler shuffler;
+
+	private final VisibleTiles visible;
+
+	/** Risco de cada peça contra cada assento, compartilhado pelos jogadores */
+	private final DangerModel danger;
+
+	/** Rio (0) e grupos expostos de cada assento (1-4) */
+	private final ArrayList<ArrayList<Tile>> table;
+
+	/** Peças na mão fechada de cada jogador, compartilhadas com os jogadores */
+	private final HandSizes left;
+
+	/** Grupos expostos e kongs de cada jogador na mão atual, no formato do {@link Scorer} */
+	private final int[][] melds;
+
+	private final int[] meldCount;
+
+	/** Jogadores que declararam riichi na mão atual */
+	private final boolean[] riichi;
+
+	/** Depósitos de riichi (1000 por declaração) ainda não recolhidos */
+	private int deposits;
+
+	/** Peças dora da vitória, preenchidas por {@link Wall#getDora(int[], boolean)} */
+	private final int[] dora = new int[2 * Wall.MAX_INDICATORS];
+
+	/* estado da mão em andamento, entre beginHand() e o fim da mão */
+	private Phase phase = Phase.HAND_OVER;
+	private Wall wall;
+	/** Peça comprada (DECIDE) ou descartada (CLAIM_WINDOW) */
+	private Tile tile;
+	/** Ação a executar em RESOLVE */
+	private Action action;
+	/** Assento da vez */
+	private int current;
+	/** Quem descartou a peça chamada {who discarded the claimed tile} */
+	private int discarder;
+	private int winner;
+	/** A próxima compra é a reposição do muro morto {嶺上牌} */
+	private boolean kong;
+
+	private ClaimWindow claims = new ClaimWindow();
+	/** Vencedores de um ron múltiplo, na ordem de turno, e o próximo a pontuar */
+	private final int[] ronWinners = new int[3];
+	private int ronCount;
+	private int ronNext;
+	/** O dealer está entre os vencedores da mão */
+	private boolean dealerWon;
+
+	private long handsPlayed;
+
+	/**
+	 * @param players Os 4 jogadores, por assento
+	 * @param rounds Número de ventos da partida (1 = 東風戰, 2 = 東南戰)
+	 * @param listener Observador, ou null
+	 */
+	public GameEngine(Player[] players, int rounds, GameListener listener){
+		this(players, rounds, listener, new Shuffler());
+	}
+
+	/**
+	 * @param players Os 4 jogadores, por assento
+	 * @param rounds Número de ventos da partida (1 = 東風戰, 2 = 東南戰)
+	 * @param listener Observador, ou null
+	 * @param shuffler Muro usado pela mesa
+	 */
+	public GameEngine(Player[] players, int rounds, GameListener listener, Shuffler shuffler){
+		if(players.length != 4){
+			throw new IllegalArgumentException("Uma mesa tem 4 jogadores");
+		}
+		player = players.clone();
+		this.rounds = rounds;
+		this.listener = listener == null ? NO_LISTENER : listener;
+		this.shuffler = shuffler;
+		visible = new VisibleTiles();
+		danger = new DangerModel(visible);
+		table = new ArrayList<ArrayList<Tile>>();
+		for(int i = 0 ; i < 5 ; i++){
+			table.add(new ArrayList<Tile>());
+		}
+		left = new HandSizes();
+		melds = new int[4][Decomposer.MAX_MELDS];
+		meldCount = new int[4];
+		riichi = new boolean[4];
+		for(int i = 0 ; i < 4 ; i++){
+			player[i].setVisibleTiles(visible);
+			player[i].setHandSizes(left, i);
+			player[i].setDangerModel(danger);
+		}
+		restart();
+	}
+
+	/**
+	 * Volta ao início da partida (Leste, primeira mão). As pontuações são mantidas.
+	 */
+	public void restart(){
+		wind = 0;
+		game = 0;
+		dealer = 0;
+	}
+
+	/**
+	 * Posiciona a partida em uma mão específica, para refazer uma mão isolada
+	 * junto com {@link Shuffler#replay(long, long)}.
+	 *
+	 * @param wind Vento da rodada (0=Leste ... 3=Norte)
+	 * @param game Mão dentro do vento (0-3)
+	 */
+	public void setRound(int wind, int game){
+		this.wind = wind;
+		this.game = game;
+	}
+
+	/**
+	 * Troca a janela de chamadas, por exemplo por uma que pergunta aos três
+	 * jogadores em paralelo e com prazo.
+	 */
+	public void setClaimWindow(ClaimWindow claims){
+		this.claims = claims;
+	}
+
+	public Shuffler getShuffler(){
+		return shuffler;
+	}
+
+	/**
+	 * Muro da mão atual (peças restantes e indicadores de dora).
+	 */
+	public Wall getWall(){
+		return shuffler.getWall();
+	}
+
+	/**
+	 * Joga mãos até o fim da partida.
+	 */
+	public void play(){
+		while(!isFinished()){
+			playHand();
+		}
+	}
+
+	/**
+	 * Verifica se todos os ventos da partida foram jogados.
+	 */
+	public boolean isFinished(){
+		return wind >= rounds;
+	}
+
+	public int getWind(){
+		return wind;
+	}
+
+	public int getGame(){
+		return game;
+	}
+
+	/**
+	 * Assento do dealer da mão atual.
+	 */
+	public int getDealer(){
+		return (dealer+game)%4;
+	}
+
+	public Player getPlayer(int seat){
+		return player[seat];
+	}
+
+	public int[] getScores(){
+		int[] scores = new int[4];
+		for(int i = 0 ; i < 4 ; i++){
+			scores[i] = player[i].getScore();
+		}
+		return scores;
+	}
+
+	public long getHandsPlayed(){
+		return handsPlayed;
+	}
+
+	/**
+	 * Joga uma mão completa.
+	 *
+	 * @return Assento do vencedor, ou -1 em empate (流局)
+	 */
+	public int playHand(){
+		beginHand();
+		while(step());
+		return winner;
+	}
+
+	/**
+	 * Verifica se há uma mão em andamento (entre {@link #beginHand()} e o
+	 * último {@link #step()}).
+	 */
+	public boolean isHandInProgress(){
+		return phase != Phase.HAND_OVER;
+	}
+
+	public Phase getPhase(){
+		return phase;
+	}
+
+	/**
+	 * Assento que compra na próxima chamada de {@link #step()}.
+	 */
+	public int getCurrent(){
+		return current;
+	}
+
+	/**
+	 * Vencedor da última mão terminada (o primeiro na ordem de turno em um ron
+	 * múltiplo), ou -1 em empate (流局).
+	 */
+	public int getLastWinner(){
+		return winner;
+	}
+
+	/**
+	 * Distribui as peças de uma nova mão. As jogadas são feitas depois com
+	 * {@link #step()}.
+	 */
+	public void beginHand(){
+		if(phase != Phase.HAND_OVER){
+			throw new IllegalStateException("Mão já em andamento");
+		}
+		table.get(0).clear();	//清空河底 {Limpe o fundo do rio}
+		visible.reset();
+		left.reset();//手牌13張 {13 cartas na mão}
+		danger.reset();
+		Arrays.fill(meldCount, 0);
+		Arrays.fill(riichi, false);
+		wall = shuffler.getWall();
+
+		ArrayList<ArrayList<Tile>> allTiles = new ArrayList<ArrayList<Tile>>();// 0萬 1筒 2條 3字
+		for(int j = 0 ; j < 4 ; j++){
+			allTiles.add(new ArrayList<Tile>());
+		}
+		//init 4 players' hands and tables
+		for(int i = 0 ; i < 4 ; i++){
+			table.get(i+1).clear();//清空副露 {efeitos colaterais claros}
+			listener.handSizeChanged(i, left.get(i));
+			for(int j = 0 ; j < 4 ; j++){
+				allTiles.get(j).clear();
+			}
+			for(int j = 0 ; j < 13 ; j++){
+				Tile tmpTile = Tile.of(wall.draw());
+				allTiles.get(tmpTile.getSuit()).add(tmpTile);
+			}
+			player[i].initHand(allTiles);
+		}
+		listener.handStarted(wind, game, getDealer());
+		listener.scoresChanged(getScores());
+		revealDora(wall);
+
+		winner = -1;
+		discarder = -1;
+		kong = false;
+		ronCount = 0;
+		dealerWon = false;
+		current = getDealer();//莊家開始，抽牌、決定動作 {O dealer começa, compra cartas e decide as ações.}
+		listener.activePlayer(current);
+		moveTo(Phase.DRAW);
+	}
+
+	/**
+	 * Joga um turno: o jogador da vez compra e decide, e a ação é executada
+	 * junto com as chamadas que ela provocar, até a vez passar para a próxima
+	 * compra ou a mão acabar.
+	 *
+	 * @return true se a mão continua
+	 */
+	public boolean step(){
+		do {
+			advance();
+		} while(phase != Phase.DRAW && phase != Phase.HAND_OVER);
+		return phase != Phase.HAND_OVER;
+	}
+
+	/**
+	 * Faz uma transição da mão em andamento.
+	 *
+	 * @return A nova fase
+	 */
+	public Phase advance(){
+		switch(phase){
+			case DRAW:
+				draw();
+				break;
+			case DECIDE:
+				action = player[current].doSomething(0, tile);
+				moveTo(Phase.RESOLVE);
+				break;
+			case RESOLVE:
+				resolve();
+				break;
+			case CLAIM_WINDOW:
+				claimWindow();
+				break;
+			default:
+				throw new IllegalStateException("Nenhuma mão em andamento");
+		}
+		return phase;
+	}
+
+	private void moveTo(Phase next){
+		Phase from = phase;
+		phase = next;
+		listener.phaseChanged(from, next);
+	}
+
+	/**
+	 * DRAW: compra do muro vivo, ou do muro morto depois de um kong.
+	 */
+	private void draw(){
+		listener.turnStarting(current);
+		int next = kong ? wall.rinshan() : wall.draw();
+		if(kong && next >= 0) revealDora(wall);
+		kong = false;
+		if(next < 0){//流局: muro vivo vazio ou quinto kong {Situação perdida}
+			shuffler.permuteIndex();
+			listener.activePlayer(-1);
+			listener.handEnded(-1, -1, null, null);
+			for(int i = 0 ; i < 4 ; i++){
+				player[i].GameOver(0, i);	//告知player流局 {Notifique o jogador sobre a situação}
+			}
+			endHand();
+			return;
+		}
+		tile = Tile.of(next);
+		moveTo(Phase.DECIDE);
+	}
+
+	/**
+	 * RESOLVE: executa a ação pendente do jogador da vez.
+	 */
+	private void resolve(){
+		listener.actionTaken(current, action);
+		switch(action.getType()){//執行動作 {executar a ação}
+			case 0:	//摸 {tocar}
+			case 1:	//吃 {comer}
+			case 2:	//碰 {ressalto}
+			case 6:	//立直 {fique em linha reta}
+				left.remove(current, action.getTiles().size()-1);//手牌減少 {Mãos reduzidas}
+				listener.handSizeChanged(current, left.get(current));
+				if(action.getType() == 1 || action.getType() == 2){
+					recordMeld(current, action.getType(), action.getTiles().subList(1, action.getTiles().size()));
+				}
+				else if(action.getType() == 6 && !riichi[current]){	//立直棒 {depósito de riichi}
+					riichi[current] = true;
+					player[current].addScore(-1000);
+					deposits += 1000;
+					listener.scoresChanged(getScores());
+				}
+				for(int i = 1 ; i < action.getTiles().size() ; i++){	//副露 {Vice-exposição}
+					table.get(current+1).add(action.getTiles().get(i));
+					visible.reveal(action.getTiles().get(i));
+				}
+				listener.tableChanged(table);
+				tile = action.getTiles().get(0);	//打出來的牌 {cartas jogadas}
+				danger.discarded(current, tile, action.getType() == 6);
+				moveTo(Phase.CLAIM_WINDOW);
+				break;
+			case 3:	//槓 {bar}
+			case 4:	//加槓 {Adicionar uma barra}
+			case 5:	//暗槓 {barra escondida}
+				left.remove(current, action.getTiles().size());//手牌減少 {Mãos reduzidas}
+				listener.handSizeChanged(current, left.get(current));
+				recordMeld(current, action.getType(), action.getTiles());
+				for(int i = 0 ; i < action.getTiles().size() ; i++){	//槓從0開始算副露 {Kong começa a contar a partir de 0}
+					table.get(current+1).add(action.getTiles().get(i));
+					visible.reveal(action.getTiles().get(i));
+				}
+				listener.tableChanged(table);
+				kong = true;	//目前玩家補一張，從嶺上抽牌 {O jogador compra a reposição do muro morto}
+				moveTo(Phase.DRAW);
+				break;
+			case 7:	//榮 {glória}
+			case 8:	//自摸 {Toque-se}
+				if(winner < 0) winner = current;
+				if(action.getType() == 8) discarder = -1;
+				if(current == getDealer()) dealerWon = true;
+				Scorer.Result result = scoreWin(wall, current, discarder, action.getTiles(), tile);
+				listener.handEnded(current, discarder, action, result);
+				if(action.getType() == 7 && ++ronNext < ronCount){	//ron múltiplo: o próximo vencedor {下一家也榮}
+					current = ronWinners[ronNext];
+					action = claims.getClaim(current);
+					listener.activePlayer(current);
+					moveTo(Phase.RESOLVE);
+					break;
+				}
+				listener.activePlayer(-1);
+				for(int i = 0 ; i < 4 ; i++){
+					player[i].GameOver(action.getType() == 7 ? 1 : 2, (winner-i+4)%4);	//告知player {Diga ao jogador}
+				}
+				if(!dealerWon){//莊家沒有連莊就輪莊 {Se o dealer não venceu, passa para a próxima mão}
+					game++;
+				}
+				shuffler.permuteIndex();
+				endHand();
+				break;
+			default:
+				throw new IllegalStateException(player[current]+" unknown action "+action.getType()+".");
+		}
+	}
+
+	/**
+	 * CLAIM_WINDOW: oferece o descarte aos outros três jogadores.
+	 */
+	private void claimWindow(){
+		//問另外三家有沒有事情要做 {Pergunte às outras três se têm algo a fazer.}
+		int count = claims.open(player, current, tile, ronWinners);
+		if(count > 0){//執行最優先動作, 榮>碰>吃 {Execute a ação de maior prioridade, glória> toque> comer}
+			discarder = current;
+			current = ronWinners[0];
+			action = claims.getClaim(current);
+			ronCount = count;
+			ronNext = 0;
+			listener.activePlayer(current);
+			moveTo(Phase.RESOLVE);
+			return;
+		}
+		//換下一家，抽牌、決定動作 {Mude para a próxima casa, comprar e decidir a ação}
+		table.get(0).add(tile);
+		visible.reveal(tile);
+		listener.tableChanged(table);
+		current = (current+1)%4;
+		listener.activePlayer(current);
+		moveTo(Phase.DRAW);
+	}
+
+	/**
+	 * Fecha a mão: avança o vento depois da quarta mão e conta a mão jogada.
+	 */
+	private void endHand(){
+		moveTo(Phase.HAND_OVER);
+		if(game == 4){	//打滿4局，南入 {Depois de jogar 4 partidas, entra o Sul}
+			wind = wind+1;
+			game = 0;
+		}
+		handsPlayed++;
+	}
+
+	/**
+	 * Mostra o último indicador de dora revelado.
+	 */
+	private void revealDora(Wall wall){
+		int indicator = wall.getDoraIndicator(wall.getDoraCount() - 1);
+		visible.reveal(Tile.of(indicator));
+		listener.doraRevealed(indicator);
+	}
+
+	/**
+	 * Registra um grupo chamado ou um kong para a pontuação.
+	 *
+	 * @param current Jogador que fez a ação
+	 * @param type Tipo da ação (1 chow, 2 pong, 3 kong, 4 kong adicionado, 5 kong fechado)
+	 * @param tiles Peças do grupo
+	 */
+	private void recordMeld(int current, int type, List<Tile> tiles){
+		int first = Integer.MAX_VALUE;
+		for(Tile t : tiles) first = Math.min(first, t.getIndex());
+		if(type == 4){	//加槓: o pong registrado vira kong {o pong vira kong}
+			for(int i = 0; i < meldCount[current]; i++){
+				if(melds[current][i] == (first | Scorer.OPEN)) melds[current][i] |= Scorer.KONG;
+			}
+			return;
+		}
+		if(meldCount[current] == Decomposer.MAX_MELDS) return;
+		int code = first;
+		if(type == 1) code |= Decomposer.CHOW;
+		if(type >= 3) code |= Scorer.KONG;
+		if(type != 5) code |= Scorer.OPEN;
+		melds[current][meldCount[current]++] = code;
+	}
+
+	/**
+	 * Pontua a vitória, paga os jogadores e entrega os depósitos de riichi ao
+	 * vencedor.
+	 *
+	 * @param wall Muro da mão, com os indicadores de dora
+	 * @param winner Jogador que venceu
+	 * @param discarder Jogador que descartou a peça (ron), ou -1 para tsumo
+	 * @param tiles Mão fechada do vencedor, com a peça da vitória
+	 * @param winTile Peça da vitória
+	 * @return Pontuação, ou null se a mão não é pontuável
+	 */
+	private Scorer.Result scoreWin(Wall wall, int winner, int discarder, List<Tile> tiles, Tile winTile){
+		int[] counts = new int[Hand.KINDS];
+		for(Tile t : tiles) counts[t.getIndex()]++;
+		int dealerSeat = getDealer();
+		int seatWind = (winner - dealerSeat + 4)%4;
+		Scorer.Result result = Scorer.score(counts, winTile.getIndex(), discarder < 0,
+				melds[winner], meldCount[winner], riichi[winner], wind, seatWind,
+				dora, wall.getDora(dora, riichi[winner]));
+		if(result == null) return null;
+		int[] pay = result.payments(winner, discarder, dealerSeat);
+		for(int i = 0 ; i < 4 ; i++){
+			player[i].addScore(pay[i]);
+		}
+		player[winner].addScore(deposits);
+		deposits = 0;
+		listener.scoresChanged(getScores());
+		return result;
+	}
+}
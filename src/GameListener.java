@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+
+/**
+ * Observador opcional do {@link GameEngine}.
+ *
+ * <p>Todos os métodos têm implementação vazia, para que cada observador
+ * (GUI, log, estatísticas) trate só o que precisa. Os assentos são absolutos
+ * (0-3, o 0 é o primeiro jogador da configuração).</p>
+ */
+public interface GameListener {
+
+	/**
+	 * Uma nova mão começou, depois da distribuição das 13 peças.
+	 *
+	 * @param wind Vento da rodada (0=東 ... 3=北)
+	 * @param game Número da mão dentro do vento (0-3)
+	 * @param dealer Assento do dealer desta mão
+	 */
+	default void handStarted(int wind, int game, int dealer){
+	}
+
+	/**
+	 * A mão mudou de fase (ponto para métricas e log de replay).
+	 *
+	 * @param from Fase anterior
+	 * @param to Nova fase
+	 */
+	default void phaseChanged(GameEngine.Phase from, GameEngine.Phase to){
+	}
+
+	/**
+	 * Um indicador de dora foi revelado (no início da mão e a cada kong).
+	 *
+	 * @param indicator Índice de tipo do indicador
+	 */
+	default void doraRevealed(int indicator){
+	}
+
+	/**
+	 * O jogador da vez mudou (-1 quando a mão acabou).
+	 */
+	default void activePlayer(int seat){
+	}
+
+	/**
+	 * O jogador vai comprar uma peça e decidir a sua ação.
+	 */
+	default void turnStarting(int seat){
+	}
+
+	/**
+	 * Um jogador executou uma ação (descarte, chamada, kong, riichi ou vitória).
+	 */
+	default void actionTaken(int seat, Action action){
+	}
+
+	/**
+	 * A quantidade de peças na mão fechada de um jogador mudou.
+	 */
+	default void handSizeChanged(int seat, int size){
+	}
+
+	/**
+	 * Rio ou grupos expostos mudaram.
+	 *
+	 * @param table Rio (posição 0) e grupos expostos de cada assento (posições 1-4)
+	 */
+	default void tableChanged(ArrayList<ArrayList<Tile>> table){
+	}
+
+	/**
+	 * As pontuações mudaram (riichi ou pagamento de uma vitória).
+	 *
+	 * @param scores Pontuação de cada assento
+	 */
+	default void scoresChanged(int[] scores){
+	}
+
+	/**
+	 * A mão terminou. Em um ron múltiplo é chamado uma vez por vencedor, na
+	 * ordem de turno a partir do descartador.
+	 *
+	 * @param winner Assento do vencedor, ou -1 em empate (流局)
+	 * @param discarder Assento de quem descartou a peça da vitória, ou -1
+	 * @param action Ação de vitória com a mão do vencedor, ou null em empate
+	 * @param result Pontuação da vitória, ou null em empate ou mão não pontuável
+	 */
+	default void handEnded(int winner, int discarder, Action action, Scorer.Result result){
+	}
+}
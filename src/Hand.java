@@ -1,330 +1,351 @@
 import java.util.*;
 
 public class Hand {
-	
-	private ArrayList<ArrayList<Tile>> allTiles;
+
+	/** Número de tipos de peça distintos (9萬 + 9筒 + 9條 + 7字) */
+	public static final int KINDS = 34;
+
+	/** Quantidade de cada tipo de peça na mão, indexada por Tile.getIndex() */
+	private final int[] counts;
+
+	/** Total de peças na mão */
+	private int size;
+
+	/** Visão de compatibilidade em listas por naipe, construída sob demanda */
+	private ArrayList<ArrayList<Tile>> view;
+
+	/*
+	 * Estado incremental do shanten. Cada alteração de uma peça muda só a
+	 * chave do seu naipe (um dígito na base 5) e os contadores de pares e
+	 * tipos; a linha da tabela do naipe e a combinação do par de naipes a que
+	 * ele pertence (萬+筒 ou 條+字) são refeitas apenas na próxima consulta.
+	 */
+
+	/** Chave de cada naipe no {@link Shanten} */
+	private final int[] keys;
+
+	/** Linha da tabela de cada naipe, válida se o bit do naipe não está em dirtyRows */
+	private final long[] rows;
+
+	/** Combinações 萬+筒 (0) e 條+字 (1), válidas se o bit não está em dirtyHalves */
+	private final long[] halves;
+
+	private int dirtyRows;
+
+	private int dirtyHalves;
+
+	/** Tipos com pelo menos uma e pelo menos duas peças (sete pares) */
+	private int kinds;
+	private int pairs;
+
+	/** Órfãos com pelo menos uma e pelo menos duas peças (treze órfãos) */
+	private int orphanKinds;
+	private int orphanPairs;
+
+	/** Último shanten calculado, ou UNKNOWN depois de uma alteração */
+	private int shanten;
+
+	private static final int UNKNOWN = Integer.MIN_VALUE;
 
 	public Hand(){
-		allTiles = new ArrayList<ArrayList<Tile>>();
-		allTiles.add(new ArrayList<Tile>());	//wan
-		allTiles.add(new ArrayList<Tile>());	//tong
-		allTiles.add(new ArrayList<Tile>());	//tiao
-		allTiles.add(new ArrayList<Tile>());	//zi
+		counts = new int[KINDS];
+		size = 0;
+		keys = new int[4];
+		rows = new long[4];
+		halves = new long[2];
+		dirtyRows = 0b1111;
+		dirtyHalves = 0b11;
+		shanten = UNKNOWN;
 	}
 
 	public Hand(ArrayList<ArrayList<Tile>> all){
-		//printList(all);
-		//System.out.println(all.get(0).size() + " " + all.get(1).size() + " " + all.get(2).size() + " " + all.get(3).size());
-		allTiles = new ArrayList<ArrayList<Tile>>();
-		allTiles.add(new ArrayList<Tile>());	//wan
-		allTiles.add(new ArrayList<Tile>());	//tong
-		allTiles.add(new ArrayList<Tile>());	//tiao
-		allTiles.add(new ArrayList<Tile>());	//zi
+		this();
 		for(int i = 0;i < 4;i++){
 			for(Tile temp: all.get(i)){
-				allTiles.get(i).add(temp);
-			}		
-
+				counts[temp.getIndex()]++;
+				size++;
+			}
 		}
+		recount();
 	}
 
+	public Hand(Hand other){
+		counts = other.counts.clone();
+		size = other.size;
+		keys = other.keys.clone();
+		rows = other.rows.clone();
+		halves = other.halves.clone();
+		dirtyRows = other.dirtyRows;
+		dirtyHalves = other.dirtyHalves;
+		kinds = other.kinds;
+		pairs = other.pairs;
+		orphanKinds = other.orphanKinds;
+		orphanPairs = other.orphanPairs;
+		shanten = other.shanten;
+	}
+
+	/**
+	 * Visão de compatibilidade no formato antigo: uma lista ordenada por naipe,
+	 * com a peça repetida uma vez para cada cópia na mão. É reconstruída apenas
+	 * depois de uma alteração na mão; alterar as listas retornadas não altera a mão.
+	 */
 	public ArrayList<ArrayList<Tile>> getAll(){
-		return allTiles;	
+		if(view == null){
+			view = new ArrayList<ArrayList<Tile>>();
+			for(int suit = 0;suit < 4;suit++){
+				ArrayList<Tile> temp = new ArrayList<Tile>();
+				int end = suit == 3 ? KINDS : suit * 9 + 9;
+				for(int i = suit * 9;i < end;i++){
+					for(int j = 0;j < counts[i];j++){
+						temp.add(Tile.of(i));
+					}
+				}
+				view.add(temp);
+			}
+		}
+		return view;
+	}
+
+	public int getCount(int index){
+		return counts[index];
+	}
+
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Copia as quantidades de cada tipo de peça para o vetor informado.
+	 *
+	 * @param dest Vetor com 34 posições
+	 * @return O próprio vetor informado
+	 */
+	public int[] getCounts(int[] dest){
+		System.arraycopy(counts, 0, dest, 0, KINDS);
+		return dest;
+	}
+
+	/**
+	 * Distância da mão até o tenpai (-1 = completa, 0 = tenpai), considerando a
+	 * forma padrão, sete pares e treze órfãos. Ver {@link Shanten}.
+	 *
+	 * <p>O valor é mantido entre alterações: depois de um add/discard/replace
+	 * só a linha do naipe alterado e uma combinação são refeitas.</p>
+	 */
+	public int getShanten(){
+		if(shanten != UNKNOWN) return shanten;
+		for(int suit = 0;suit < 4;suit++){
+			if((dirtyRows & (1 << suit)) != 0){
+				rows[suit] = suit == 3 ? Shanten.honorRow(keys[suit]) : Shanten.numberRow(keys[suit]);
+			}
+		}
+		if((dirtyHalves & 1) != 0) halves[0] = Shanten.combine(rows[0], rows[1]);
+		if((dirtyHalves & 2) != 0) halves[1] = Shanten.combine(rows[2], rows[3]);
+		dirtyRows = 0;
+		dirtyHalves = 0;
+
+		int res = Shanten.finish(halves[0], halves[1], size / 3);
+		if(size >= 13){
+			res = Math.min(res, Shanten.sevenPairs(pairs, kinds));
+			res = Math.min(res, Shanten.thirteenOrphans(orphanKinds, orphanPairs > 0));
+		}
+		shanten = res;
+		return res;
 	}
 
 	public void add(Tile n){
-		Tile newTile = n;
-		newTile.setSize(1);
-		int index = allTiles.get(newTile.getSuit()).indexOf(newTile);
-		if(index >= 0) allTiles.get(newTile.getSuit()).get(index).addSize(1);
-		else allTiles.get(newTile.getSuit()).add(newTile);
-		sort();
+		change(n.getIndex(), 1);
+		size++;
+		view = null;
 	}
-	
+
 	public boolean discard(Tile n){ //If no this tile in hand return false (An error) {Se não, este bloco em mãos retornará falso (um erro)}
-		Tile discardTile = n;
-		discardTile.setSize(1);
-		int index = allTiles.get(discardTile.getSuit()).indexOf(discardTile);
-		if(index < 0) return false;
-		if(allTiles.get(discardTile.getSuit()).get(index).getSize() > 1){ 
-			allTiles.get(discardTile.getSuit()).get(index).addSize(-1);
-			return true;			
-		}
-		allTiles.get(discardTile.getSuit()).remove(index);
-		sort();
+		if(counts[n.getIndex()] == 0) return false;
+		change(n.getIndex(), -1);
+		size--;
+		view = null;
 		return true;
 	}
 
 	public boolean replace(Tile n, Tile o){ //If this old tile is not in hand return false (An error) {Se este bloco antigo não estiver em mãos, retorne falso (um erro)}
-		Tile oldTile = o;
-		oldTile.setSize(1);
-		Tile newTile = n;
-		newTile.setSize(1);
-		int oldIndex = allTiles.get(oldTile.getSuit()).indexOf(oldTile);
-		if(oldIndex < 0) return false;
-		if(allTiles.get(oldTile.getSuit()).get(oldIndex).getSize() > 1) allTiles.get(oldTile.getSuit()).get(oldIndex).addSize(-1);			
-		else allTiles.get(oldTile.getSuit()).remove(oldIndex);
-
-		int newIndex = allTiles.get(newTile.getSuit()).indexOf(newTile);
-
-		if(newIndex >= 0) allTiles.get(newTile.getSuit()).get(newIndex).addSize(1);
-		else allTiles.get(newTile.getSuit()).add(newTile);
-		sort();
+		if(counts[o.getIndex()] == 0) return false;
+		change(o.getIndex(), -1);
+		change(n.getIndex(), 1);
+		view = null;
 		return true;
 	}
 
+	/**
+	 * Altera a quantidade de uma peça em uma unidade e atualiza o estado
+	 * incremental do shanten.
+	 */
+	private void change(int index, int delta){
+		int before = counts[index];
+		int after = before + delta;
+		counts[index] = after;
+
+		int suit = index / 9;
+		keys[suit] += delta * Shanten.POW5[index % 9];
+		dirtyRows |= 1 << suit;
+		dirtyHalves |= suit < 2 ? 1 : 2;
+		shanten = UNKNOWN;
+
+		int kind = (after > 0 ? 1 : 0) - (before > 0 ? 1 : 0);
+		int pair = (after >= 2 ? 1 : 0) - (before >= 2 ? 1 : 0);
+		kinds += kind;
+		pairs += pair;
+		if(Shanten.isOrphan(index)){
+			orphanKinds += kind;
+			orphanPairs += pair;
+		}
+	}
+
+	/**
+	 * Refaz todo o estado incremental a partir das quantidades, para as
+	 * alterações que mexem em várias peças de uma vez.
+	 */
+	private void recount(){
+		kinds = 0;
+		pairs = 0;
+		orphanKinds = 0;
+		orphanPairs = 0;
+		for(int i = 0;i < KINDS;i++){
+			if(counts[i] > 0) kinds++;
+			if(counts[i] >= 2) pairs++;
+			if(Shanten.isOrphan(i)){
+				if(counts[i] > 0) orphanKinds++;
+				if(counts[i] >= 2) orphanPairs++;
+			}
+		}
+		for(int suit = 0;suit < 4;suit++){
+			keys[suit] = Shanten.suitKey(counts, suit);
+		}
+		dirtyRows = 0b1111;
+		dirtyHalves = 0b11;
+		shanten = UNKNOWN;
+	}
+
 	public boolean pongable(Tile newTile){
-		for(Tile t : allTiles.get(newTile.getSuit())){
-			if(newTile.getIndex() == t.getIndex() && t.getSize() >= 2){
-				return true;			
-			}		
-		}	
-		return false;
+		return counts[newTile.getIndex()] >= 2;
 	}
 
 	public int chowable(Tile newTile){
-		int flag = 0;		
+		int flag = 0;
 		if(newTile.getSuit() == 3) return 0;
+		int i = newTile.getIndex();
 		if(newTile.getValue() >= 2)
-			 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() - 1)))
-				 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() - 2)))
-					flag |= 0b001;
-		if(newTile.getValue() <= 7)
-			 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() + 1)))
-				 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() + 2)))
-					flag |= 0b100;
-
-		if(newTile.getValue() <= 8 && newTile.getValue() >= 1)
-			 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() - 1)))
-				 if(allTiles.get(newTile.getSuit()).contains(new Tile(newTile.getIndex() + 1)))
-					flag |= 0b010;
-				
+			if(counts[i - 1] > 0 && counts[i - 2] > 0)
+				flag |= 0b001;
+		if(newTile.getValue() <= 6)
+			if(counts[i + 1] > 0 && counts[i + 2] > 0)
+				flag |= 0b100;
+		if(newTile.getValue() <= 7 && newTile.getValue() >= 1)
+			if(counts[i - 1] > 0 && counts[i + 1] > 0)
+				flag |= 0b010;
 		return flag;
 	}
 
 	public boolean kongable(Tile newTile){
-		for(Tile t : allTiles.get(newTile.getSuit())){
-			if(newTile.getIndex() == t.getIndex() && t.getSize() == 3){
-				return true;			
-			}		
-		}	
-		return false;
+		return counts[newTile.getIndex()] == 3;
 	}
-	
-	/*public boolean huable(Tile newTile){
-		for(Tile t : ting){
-			if(newTile.getIndex() == t.getIndex()) return true;		
-		}	
-		return false;
-	}*/	
-
-	public ArrayList<Tile> tingable(Tile newTile){
-		boolean takepair = true;
-		ArrayList<Tile> noPairTing = new ArrayList<Tile>();
-		noPairTing.add(newTile);	
 
-		ArrayList<Tile> res = new ArrayList<Tile>();
+	/**
+	 * Esperas da mão atual (3n+1 peças) como máscara de 34 bits. Ver {@link Waits}.
+	 */
+	public long getWaits(){
+		return Waits.mask(counts);
+	}
 
-		add(newTile);
+	/**
+	 * Avaliação compactada da mão atual (shanten, esperas ou descartes para
+	 * tenpai, mão completa). Ver {@link Evaluation}.
+	 */
+	public long evaluate(){
+		return Evaluation.compute(counts);
+	}
 
-		sort();		
+	/**
+	 * Verifica se a peça completa a mão, sem alterá-la. Ver {@link Agari}.
+	 */
+	public boolean isWinningWith(Tile newTile){
+		return Agari.isCompleteWith(counts, newTile.getIndex());
+	}
 
-		ArrayList<Tile> pair = new ArrayList<Tile>();
-		
+	/**
+	 * Verifica se a mão atual (3n+2 peças) está completa.
+	 */
+	public boolean isComplete(){
+		return Agari.isComplete(counts);
+	}
 
-		for(ArrayList<Tile> temp:allTiles){
-			for(Tile t:temp){
-				if(t.getSize() >= 2) pair.add(t);
-			}		
+	/**
+	 * Adaptador para os chamadores antigos: com a nova peça na mão, retorna
+	 * null se a mão está completa, ou as peças cujo descarte deixa a mão em
+	 * tenpai (lista vazia se nenhuma). A mão não é alterada.
+	 */
+	public ArrayList<Tile> tingable(Tile newTile){
+		int index = newTile.getIndex();
+		long evaluation;
+		counts[index]++;
+		try {
+			evaluation = Evaluation.compute(counts);
+		} finally {
+			counts[index]--;
 		}
-		for(int i = 0;i < pair.size() + 1;i++){
-
-			//System.out.println("Pair:" +pair.get(i));
-			Hand tempHand = new Hand(allTiles);
-
-			//System.out.println("tempHand_origin:" + tempHand);
-			if(i != pair.size()){
-				tempHand.discard(pair.get(i));
-				tempHand.discard(pair.get(i));
-			}else{
-				takepair = false;
-			}
-
-			//System.out.println("tempHand:" + tempHand);
-			ArrayList<Tile> Triplet = new ArrayList<Tile>();
-			for(ArrayList<Tile> temp:tempHand.getAll()){
-				for(Tile t:temp){
-					if(t.getSize() >= 3){
-						Triplet.add(t);				
-					}
-				}		
-			}
-			for(Tile t:Triplet){
-				tempHand.discard(t);				
-				tempHand.discard(t);
-				tempHand.discard(t);				
-			} 
-
-			
-			//System.out.println("tempHand:" + tempHand);
-			ArrayList<Hand> shunTemp = new ArrayList<Hand>();
-			for(int j = 0;j < 8;j++){
-				Hand temp = new Hand(tempHand.getAll());
-				temp.takeShun(0, ((j & 0b001) == 0));
-				temp.takeShun(1, ((j & 0b010) == 0));
-				temp.takeShun(2, ((j & 0b100) == 0));
-				shunTemp.add(temp);
-			}
-			
-			for(int j = 0;j < 8;j++){
-				//System.out.println(shunTemp.get(j));
-				ArrayList<ArrayList<Tile>> temp = shunTemp.get(j).getAll();
-				int nLeft = 0;
-				for(int k = 0;k < 3;k++){
-					if(!temp.get(k).isEmpty()){
-						nLeft++;								
-					}
-				}	
-				if(nLeft == 0){
-					discard(newTile);
-					return null;
-				}
-
-				List<Tile> theHope;
-				//System.out.println("nLeft:" + nLeft);
-
-				if(nLeft <= 2){
-					theHope = new ArrayList<Tile>();
-					for(ArrayList<Tile> content:temp) theHope.addAll(content);
-					
-
-					//System.out.println("theHope:" + theHope);
-					if(theHope.size() == 2 && takepair == true){
-						//System.out.println(theHope.get(0).getSize() + " " + theHope.get(1).getSize());
-						if(theHope.get(0).getSize() == 2 && theHope.get(1).getSize() == 1){
-							Tile t1 = theHope.get(1);
-							if(res.indexOf(t1) < 0) res.add(t1);			
-						}
-						if(theHope.get(0).getSize() == 1 && theHope.get(1).getSize() == 2){
-							Tile t1 = theHope.get(0);
-							if(res.indexOf(t1) < 0) res.add(t1);							
-						}
-										
-					}
-					if(theHope.size() == 3 && takepair == true){
-						if(theHope.get(0).getSize() == 1 && theHope.get(1).getSize() == 1 && theHope.get(2).getSize() == 1){
-							if(theHope.get(0).getIndex() + 1 == theHope.get(1).getIndex() && theHope.get(0).getSuit() == theHope.get(1).getSuit() && theHope.get(0).getSuit() != 3){
-								Tile t3 = theHope.get(2);
-								if(res.indexOf(t3) < 0) res.add(t3);
-											
-							}
-							if(theHope.get(1).getIndex() + 1 == theHope.get(2).getIndex() && theHope.get(1).getSuit() == theHope.get(2).getSuit() && theHope.get(1).getSuit() != 3){
-								Tile t3 = theHope.get(0);
-								if(res.indexOf(t3) < 0) res.add(t3);
-							}
-						}					
-					}
-				
-					if(theHope.size() == 2 && takepair == false){
-						if(theHope.get(0).getSize() == 1 && theHope.get(1).getSize() == 1){
-							Tile t1 = theHope.get(0);
-							Tile t2 = theHope.get(1);
-							if(res.indexOf(t1) < 0) res.add(t1);
-							if(res.indexOf(t2) < 0) res.add(t2);
-						}
-					}
-						
-				}	
-				
-			}			
-		}		
-		// if(noPairTing.size() > 1){
-				
-			// for(Tile t:noPairTing) if(res.indexOf(t) < 0) res.add(t);
-		// }
-
-		discard(newTile);
-		//System.out.println("Hand:" + this);
-		//System.out.println("New Tile:" + newTile);
-		//System.out.println("Discard:");
-		//for(Tile temp:res){
-		//	System.out.print(temp + " ");
-			
-		//}
-		//System.out.println("");	
-		return res;
+		if(Evaluation.isComplete(evaluation)) return null;
+		return Waits.toTiles(Evaluation.mask(evaluation));
 	}
 
 	public void takeShun(int suit, boolean direction){
-		Collections.sort(allTiles.get(suit));
-		int i = 0;
+		takeShun(counts, suit, direction);
+		size = 0;
+		for(int c : counts) size += c;
+		recount();
+		view = null;
+	}
+
+	//remove greedily every run of three consecutive tiles of the suit, from the lowest (direction) or the highest value
+	static void takeShun(int[] c, int suit, boolean direction){
+		int base = suit * 9;
 		if(direction){
-			int s = allTiles.get(suit).size();
-			while(i < s - 2){
-				//System.out.println(i + " " + allTiles.get(suit).size());
-				Tile a = allTiles.get(suit).get(i);
-				Tile b = allTiles.get(suit).get(i+1);
-				Tile c = allTiles.get(suit).get(i+2);
-				if(a.getIndex() + 1 == b.getIndex() && b.getIndex() + 1 == c.getIndex()){
-					discard(a);
-					discard(b);
-					discard(c);
-				}else{
-					i++;
-				}		
-				s = allTiles.get(suit).size();
-			}					
+			for(int v = 0;v <= 6;v++){
+				int i = base + v;
+				while(c[i] > 0 && c[i+1] > 0 && c[i+2] > 0){
+					c[i]--;
+					c[i+1]--;
+					c[i+2]--;
+				}
+			}
 		}else{
-			int s = allTiles.get(suit).size();
-			int j = 3;
-			i = s - j;
-			while(i >= 0){
-				//System.out.println(suit + " " + allTiles.get(suit).size());
-				Tile a = allTiles.get(suit).get(i);
-				Tile b = allTiles.get(suit).get(i+1);
-				Tile c = allTiles.get(suit).get(i+2);
-				if(a.getIndex() + 1 == b.getIndex() && b.getIndex() + 1 == c.getIndex()){
-					discard(a);
-					discard(b);
-					discard(c);
-				}else{
-					j++;
-				}		
-				s = allTiles.get(suit).size();
-				i = s - j;	
+			for(int v = 8;v >= 2;v--){
+				int i = base + v;
+				while(c[i-2] > 0 && c[i-1] > 0 && c[i] > 0){
+					c[i-2]--;
+					c[i-1]--;
+					c[i]--;
+				}
 			}
 		}
 	}
 
-	public void sort(){
-		Collections.sort(allTiles.get(0));	
-		Collections.sort(allTiles.get(1));
-		Collections.sort(allTiles.get(2));
-		Collections.sort(allTiles.get(3));
-	}
-
 	public String toString(){
 		String s = "";
-		for(ArrayList<Tile> temp:allTiles){
-			for(Tile t:temp){
-				for(int i = 0;i < t.getSize();i++)
-				s += (t.toString() + " ");	
-			}		
-		}	
+		for(int i = 0;i < KINDS;i++){
+			for(int j = 0;j < counts[i];j++){
+				s += (Tile.of(i).toString() + " ");
+			}
+		}
 		return s;
-	}	
+	}
 
 	public void printList(ArrayList<ArrayList<Tile>> a){
 		String s = "";
 		for(ArrayList<Tile> temp:a){
 			for(Tile t:temp){
-				for(int i = 0;i < t.getSize();i++)
-				s += (t.toString() + " ");	
-			}		
+				s += (t.toString() + " ");
+			}
 		}
 		System.out.println(s);
 	}
-	
-}
-
 
+}
@@ -0,0 +1,57 @@
+import java.util.Arrays;
+
+/**
+ * Tamanho da mão fechada de cada assento entre os turnos, como a mesa conta
+ * (o mesmo que o {@link GameListener#handSizeChanged} informa).
+ *
+ * <p>Como a {@link VisibleTiles}, uma instância é da mesa: o
+ * {@link GameEngine} atualiza os tamanhos a cada grupo exposto e os
+ * jogadores apenas consultam. Os tamanhos são públicos na mesa real, então
+ * um jogador pode usá-los para sortear as mãos dos oponentes.</p>
+ */
+public class HandSizes {
+
+	/** Mão fechada no início de uma mão */
+	public static final int INITIAL = 13;
+
+	/** Peças na mão fechada de cada assento */
+	private final int[] sizes;
+
+	public HandSizes(){
+		sizes = new int[4];
+		reset();
+	}
+
+	/**
+	 * Cópia dos tamanhos, que não muda com a original.
+	 */
+	public HandSizes(HandSizes other){
+		sizes = other.sizes.clone();
+	}
+
+	/**
+	 * Volta todos os assentos a {@link #INITIAL} no início de uma nova mão.
+	 */
+	public void reset(){
+		Arrays.fill(sizes, INITIAL);
+	}
+
+	/**
+	 * Tira peças da mão fechada de um assento.
+	 *
+	 * @param seat Assento absoluto (0-3)
+	 * @param tiles Peças que saíram da mão para a mesa
+	 */
+	public void remove(int seat, int tiles){
+		sizes[seat] -= tiles;
+	}
+
+	/**
+	 * Retorna o tamanho da mão fechada de um assento.
+	 *
+	 * @param seat Assento absoluto (0-3)
+	 */
+	public int get(int seat){
+		return sizes[seat];
+	}
+}
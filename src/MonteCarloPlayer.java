@@ -0,0 +1,489 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jogador que escolhe descartes e chamadas por Monte Carlo determinizado
+ * plano (flat), com um limite de tempo por decisão.
+ *
+ * <p>As decisões de vitória e riichi são as da {@link AI}. No descarte
+ * depois de uma compra, os candidatos são os melhores descartes pelo
+ * {@link Ukeire} (o da heurística sempre incluído); numa chamada de chow ou
+ * pong, são passar e chamar com cada descarte candidato. Cada candidato é
+ * um braço de um UCB1 só na raiz, sem árvore abaixo dela: uma simulação
+ * sorteia as mãos dos oponentes e o muro entre as peças que este jogador não
+ * viu (uma determinização) e joga a mão até o fim em um {@link TableState},
+ * com todos descartando para manter o menor shanten e ron assim que
+ * possível. Nas simulações ninguém chama chow, pong ou kong nem declara
+ * riichi. A simulação vale 1 se este jogador vence, -1 se ele dá ron a um
+ * oponente e 0 nos outros casos, inclusive o tsumo de um oponente.</p>
+ *
+ * <p>Por ser plano, o jogador só estima o valor de cada braço contra essa
+ * política fixa: mais simulações (mais núcleos ou prazo) estreitam a
+ * estimativa, mas depois que ela converge não tornam o jogo mais forte.</p>
+ *
+ * <p>As simulações rodam em paralelo num {@link ForkJoinPool} (por padrão o
+ * comum, o mesmo da {@link ClaimWindow}), todas sobre as mesmas estatísticas
+ * da raiz; nenhuma thread é criada para a busca. A thread que decide também
+ * simula, então a busca avança mesmo com o pool ocupado. O prazo é duro: a
+ * decisão é tomada no prazo com o braço mais visitado até então, mesmo que
+ * algum worker ainda esteja no meio de uma simulação. As tarefas que nenhum
+ * worker pegou até o prazo saem da fila da thread que decide (ou são
+ * canceladas, se a decisão não roda no pool).</p>
+ *
+ * <p>Cada busca usa um {@link SplittableRandom} tirado do gerador do
+ * jogador, dividido por worker.</p>
+ *
+ * <p>{@link #queryClaim} roda nas threads da {@link ClaimWindow}, numa cópia
+ * do jogador; por isso os contadores, que a cópia divide com o original,
+ * são {@link LongAdder}.</p>
+ *
+ * <p>O sorteio é feito pelo {@link Determinizer}. Cada oponente recebe o
+ * tamanho real da sua mão fechada, que a mesa compartilha em
+ * {@link HandSizes} (13 fora de uma mesa), e o muro vivo é o resto das
+ * peças não vistas menos as do muro morto.</p>
+ *
+ * <p>Uso: {@code java MonteCarloPlayer [mãos] [prazo em ms] [workers] [semente]}
+ * joga uma mesa com um MonteCarloPlayer no assento 0 contra três
+ * {@link AI}.</p>
+ */
+public class MonteCarloPlayer extends AI {
+
+	/** Prazo padrão de uma decisão, em milissegundos */
+	public static final long DEFAULT_BUDGET = 100;
+
+	/** Máximo de descartes avaliados em uma decisão */
+	private static final int MAX_CANDIDATES = 5;
+
+	/** Constante de exploração do UCB1, sobre valores entre 0 e 1 */
+	private static final double EXPLORATION = 0.7;
+
+	/** Peças do muro morto que continuam escondidas (sem o primeiro indicador) */
+	private static final int HIDDEN_DEAD_WALL = Wall.DEAD_WALL - 1;
+
+	/** Estado de simulação de cada thread do pool, reaproveitado entre buscas */
+	private static final ThreadLocal<Rollout> ROLLOUT = ThreadLocal.withInitial(Rollout::new);
+
+	private final ForkJoinPool workers;
+
+	/** Simulações em paralelo em cada busca */
+	private final int parallelism;
+
+	/** Prazo de uma decisão, em nanossegundos */
+	private final long budget;
+
+	/** Gerador das buscas; cada uma tira o seu com split() */
+	private final SplittableRandom random;
+
+	private final LongAdder searches;
+
+	private final LongAdder rollouts;
+
+	/**
+	 * Jogador no pool comum, um worker por núcleo e o prazo padrão.
+	 */
+	public MonteCarloPlayer(String name, int score){
+		this(name, score, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors(),
+				DEFAULT_BUDGET, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * @param workers Pool onde as simulações rodam
+	 * @param parallelism Simulações em paralelo em cada busca, contando a
+	 *        thread que decide
+	 * @param budget Prazo de uma decisão, em milissegundos
+	 * @param seed Semente das simulações
+	 */
+	public MonteCarloPlayer(String name, int score, ForkJoinPool workers, int parallelism, long budget, long seed){
+		super(name, score);
+		if(parallelism <= 0){
+			throw new IllegalArgumentException("Número de workers inválido: " + parallelism);
+		}
+		if(budget <= 0){
+			throw new IllegalArgumentException("Prazo inválido: " + budget);
+		}
+		this.workers = workers;
+		this.parallelism = parallelism;
+		this.budget = TimeUnit.MILLISECONDS.toNanos(budget);
+		random = new SplittableRandom(seed);
+		searches = new LongAdder();
+		rollouts = new LongAdder();
+	}
+
+	/**
+	 * Cópia para uma pergunta de chamada: mesmo pool e prazo, os mesmos
+	 * contadores e um gerador tirado do original.
+	 */
+	private MonteCarloPlayer(MonteCarloPlayer other){
+		super(other);
+		workers = other.workers;
+		parallelism = other.parallelism;
+		budget = other.budget;
+		random = other.random.split();
+		searches = other.searches;
+		rollouts = other.rollouts;
+	}
+
+	@Override
+	protected AI copy(){
+		return new MonteCarloPlayer(this);
+	}
+
+	/**
+	 * Buscas feitas por este jogador.
+	 */
+	public long getSearches(){
+		return searches.sum();
+	}
+
+	/**
+	 * Simulações completadas no prazo, somadas em todas as buscas.
+	 */
+	public long getRollouts(){
+		return rollouts.sum();
+	}
+
+	@Override
+	protected Tile chooseDiscard(Hand _hand){
+		Tile heuristic = super.chooseDiscard(_hand);
+		int[] counts = _hand.getCounts(new int[Hand.KINDS]);
+		int[] candidates = candidates(counts, heuristic.getIndex());
+		int[] unseen = unseen(counts, -1);
+		int[] opponents = opponentHands();
+		if(candidates.length == 1 || live(unseen, opponents) <= 0) return heuristic;
+
+		int[][] hands = new int[candidates.length][];
+		int[] first = new int[candidates.length];
+		for(int a = 0; a < candidates.length; a++){
+			hands[a] = counts.clone();
+			hands[a][candidates[a]]--;
+			first[a] = 1;
+		}
+		return Tile.of(candidates[search(hands, candidates, first, unseen, opponents)]);
+	}
+
+	/**
+	 * Chow e pong passam por uma busca entre chamar (com cada descarte
+	 * candidato) e passar; ron é sempre declarado.
+	 */
+	@Override
+	public Action queryClaim(int from, Tile tile){
+		Action claim = super.queryClaim(from, tile);
+		if(claim == null || claim.getType() == 7) return claim;
+
+		int[] counts = hand.getCounts(new int[Hand.KINDS]);
+		int[] unseen = unseen(counts, tile.getIndex());
+		int[] opponents = opponentHands();
+		if(live(unseen, opponents) <= 0) return claim;
+		int[] melded = counts.clone();
+		melded[tile.getIndex()]++;
+		List<Tile> tiles = claim.getTiles();
+		for(int i = 1; i < tiles.size(); i++){
+			melded[tiles.get(i).getIndex()]--;
+		}
+		int[] candidates = candidates(melded, tiles.get(0).getIndex());
+
+		/* braços 0..n-1: chamar e descartar o candidato; braço n: passar */
+		int arms = candidates.length + 1;
+		int[][] hands = new int[arms][];
+		int[] discard = Arrays.copyOf(candidates, arms);
+		int[] first = new int[arms];
+		for(int a = 0; a < candidates.length; a++){
+			hands[a] = melded.clone();
+			hands[a][candidates[a]]--;
+			first[a] = 1;
+		}
+		hands[candidates.length] = counts;
+		discard[candidates.length] = -1;
+		first[candidates.length] = (from + 1) % 4;
+
+		int best = search(hands, discard, first, unseen, opponents);
+		if(best == candidates.length) return null;
+		List<Tile> chosen = new ArrayList<Tile>(tiles);
+		chosen.set(0, Tile.of(candidates[best]));
+		return new Action(claim.getType(), chosen);
+	}
+
+	/**
+	 * Descartes candidatos de uma mão com 3n+2 peças: o da heurística e os
+	 * melhores pelo menor shanten e maior aceitação, até {@link #MAX_CANDIDATES}.
+	 */
+	private int[] candidates(int[] counts, int heuristic){
+		int[] shanten = new int[Hand.KINDS];
+		int[] ukeire = new int[Hand.KINDS];
+		Ukeire.evaluate(counts, visible, shanten, ukeire);
+		int[] res = new int[MAX_CANDIDATES];
+		int n = 0;
+		res[n++] = heuristic;
+		while(n < MAX_CANDIDATES){
+			int best = -1;
+			for(int i = 0; i < Hand.KINDS; i++){
+				if(counts[i] == 0 || contains(res, n, i)) continue;
+				if(best < 0 || shanten[i] < shanten[best]
+						|| (shanten[i] == shanten[best] && ukeire[i] > ukeire[best])){
+					best = i;
+				}
+			}
+			if(best < 0) break;
+			res[n++] = best;
+		}
+		return Arrays.copyOf(res, n);
+	}
+
+	private static boolean contains(int[] a, int n, int value){
+		for(int i = 0; i < n; i++){
+			if(a[i] == value) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Cópias de cada peça que este jogador não viu: nem na mesa, nem na mão,
+	 * nem a peça em oferta (ainda fora da mesa), se houver.
+	 */
+	private int[] unseen(int[] counts, int offered){
+		int[] res = new int[Hand.KINDS];
+		for(int i = 0; i < Hand.KINDS; i++){
+			int n = 4 - visible.getCount(i) - counts[i] - (i == offered ? 1 : 0);
+			res[i] = Math.max(0, n);
+		}
+		return res;
+	}
+
+	/**
+	 * Mão fechada de cada oponente por assento relativo (1-3), como a mesa
+	 * conta; 13 se o jogador não está numa mesa.
+	 */
+	private int[] opponentHands(){
+		int[] res = new int[4];
+		for(int p = 1; p < 4; p++){
+			res[p] = sizes == null ? HandSizes.INITIAL : sizes.get((seat + p) % 4);
+		}
+		return res;
+	}
+
+	/** Muro vivo: as peças não vistas fora das mãos dos oponentes e do muro morto */
+	private static int live(int[] unseen, int[] opponents){
+		return total(unseen) - HIDDEN_DEAD_WALL - opponents[1] - opponents[2] - opponents[3];
+	}
+
+	private static int total(int[] counts){
+		int n = 0;
+		for(int c : counts) n += c;
+		return n;
+	}
+
+	/**
+	 * Roda a busca até o prazo, na thread atual e em parallelism-1 tarefas
+	 * do pool.
+	 *
+	 * @return O braço mais visitado
+	 */
+	private int search(int[][] hands, int[] discard, int[] first, int[] unseen, int[] opponents){
+		long deadline = System.nanoTime() + budget;
+		Search s = new Search(hands, discard, first, unseen, opponents, deadline);
+		SplittableRandom rnd = random.split();
+		/* numa thread do próprio pool as tarefas vão para a fila dela e podem ser retiradas */
+		boolean local = ForkJoinTask.getPool() == workers;
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parallelism - 1];
+		for(int i = 0; i < tasks.length; i++){
+			SplittableRandom r = rnd.split();
+			ForkJoinTask<?> task = ForkJoinTask.adapt(() -> s.run(r));
+			tasks[i] = local ? task.fork() : workers.submit(task);
+		}
+		s.run(rnd);
+		s.stopped = true;
+		for(int i = tasks.length - 1; i >= 0; i--){
+			if(!(local && tasks[i].tryUnfork())) tasks[i].cancel(false);
+		}
+		searches.increment();
+		rollouts.add(s.total());
+		return s.best();
+	}
+
+	/**
+	 * Estatísticas da raiz de uma busca, compartilhadas pelos workers.
+	 */
+	private static final class Search {
+		/** Parte fechada da mão deste jogador depois de cada braço */
+		final int[][] hands;
+		/** Peça que o braço entrega à mesa, ou -1 */
+		final int[] discard;
+		/** Assento (relativo) que compra primeiro depois do braço */
+		final int[] first;
+		/** Cópias não vistas de cada peça */
+		final int[] unseen;
+		/** Mão fechada de cada oponente, por assento relativo (1-3) */
+		final int[] opponents;
+		final int live;
+		final long deadline;
+		final AtomicLongArray visits;
+		/** Soma dos resultados (-1, 0 ou 1) de cada braço */
+		final AtomicLongArray score;
+		volatile boolean stopped;
+
+		Search(int[][] hands, int[] discard, int[] first, int[] unseen, int[] opponents, long deadline){
+			this.hands = hands;
+			this.discard = discard;
+			this.first = first;
+			this.deadline = deadline;
+			this.unseen = unseen;
+			this.opponents = opponents;
+			live = Math.max(0, MonteCarloPlayer.live(unseen, opponents));
+			visits = new AtomicLongArray(hands.length);
+			score = new AtomicLongArray(hands.length);
+		}
+
+		void run(SplittableRandom rnd){
+			Rollout rollout = ROLLOUT.get();
+			while(!stopped && System.nanoTime() < deadline){
+				int arm = select();
+				int result = rollout.play(this, arm, rnd);
+				visits.incrementAndGet(arm);
+				score.addAndGet(arm, result);
+			}
+		}
+
+		/** Braço pelo UCB1; braços sem visitas primeiro */
+		int select(){
+			long total = total();
+			int best = 0;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for(int a = 0; a < hands.length; a++){
+				long n = visits.get(a);
+				if(n == 0) return a;
+				double mean = (score.get(a) / (double)n + 1) / 2;
+				double value = mean + EXPLORATION * Math.sqrt(Math.log(total) / n);
+				if(value > bestValue){
+					bestValue = value;
+					best = a;
+				}
+			}
+			return best;
+		}
+
+		/** Braço mais visitado; no empate, o primeiro */
+		int best(){
+			int best = 0;
+			for(int a = 1; a < hands.length; a++){
+				if(visits.get(a) > visits.get(best)) best = a;
+			}
+			return best;
+		}
+
+		long total(){
+			long n = 0;
+			for(int a = 0; a < hands.length; a++) n += visits.get(a);
+			return n;
+		}
+	}
+
+	/**
+	 * Simulação de uma thread: a mesa e o {@link Determinizer} com as peças
+	 * não vistas da busca atual. Nada é alocado por simulação.
+	 */
+	private static final class Rollout {
+		final TableState state = new TableState();
+		final Determinizer determinizer = new Determinizer();
+		final int[] counts = new int[Hand.KINDS];
+		Search search;
+
+		/**
+		 * Sorteia uma determinização e joga a mão a partir do braço.
+		 *
+		 * @return 1 se este jogador vence, -1 se dá ron, 0 senão
+		 */
+		int play(Search s, int arm, SplittableRandom rnd){
+			if(search != s){
+				search = s;
+				determinizer.reset(s.unseen);
+			}
+			int used = determinizer.sample(rnd, s.opponents[1] + s.opponents[2] + s.opponents[3] + s.live);
+
+			int seat = s.first[arm];
+			state.reset(seat, s.live);
+			state.setHand(0, s.hands[arm]);
+			int k = 0;
+			for(int p = 1; p < 4; p++){
+				k = determinizer.deal(k, s.opponents[p], counts);
+				state.setHand(p, counts);
+			}
+			if(s.discard[arm] >= 0 && ron(0, s.discard[arm]) >= 0) return -1;
+
+			while(k < used){
+				int drawn = determinizer.tile(k++);
+				state.apply(TableState.move(TableState.DRAW, seat, drawn));
+				if(state.getHand(seat).getShanten() < 0) return seat == 0 ? 1 : 0;
+				int out = discard(seat, drawn, rnd);
+				int winner = ron(seat, out);
+				if(winner >= 0) return winner == 0 ? 1 : seat == 0 ? -1 : 0;
+				seat = (seat + 1) % 4;
+			}
+			return 0;
+		}
+
+		/** Primeiro assento, na ordem de turno, que faz ron com o descarte */
+		int ron(int discarder, int tile){
+			for(int i = 1; i < 4; i++){
+				int p = (discarder + i) % 4;
+				Hand hand = state.getHand(p);
+				if(hand.getShanten() == 0 && hand.isWinningWith(Tile.of(tile))) return p;
+			}
+			return -1;
+		}
+
+		/**
+		 * Descarta mantendo o menor shanten: a peça comprada se der, senão a
+		 * primeira que der a partir de um tipo sorteado.
+		 */
+		int discard(int seat, int drawn, SplittableRandom rnd){
+			Hand hand = state.getHand(seat);
+			int target = hand.getShanten();
+			state.apply(TableState.move(TableState.DISCARD, seat, drawn));
+			if(hand.getShanten() <= target) return drawn;
+			state.undo();
+			int start = rnd.nextInt(Hand.KINDS);
+			for(int i = 0; i < Hand.KINDS; i++){
+				int t = (start + i) % Hand.KINDS;
+				if(t == drawn || hand.getCount(t) == 0) continue;
+				state.apply(TableState.move(TableState.DISCARD, seat, t));
+				if(hand.getShanten() <= target) return t;
+				state.undo();
+			}
+			state.apply(TableState.move(TableState.DISCARD, seat, drawn));
+			return drawn;
+		}
+	}
+
+	public static void main(String args[]){
+		long hands = args.length > 0 ? Long.parseLong(args[0]) : 100;
+		long budget = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_BUDGET;
+		int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+		MonteCarloPlayer mc = new MonteCarloPlayer("MonteCarlo", GameEngine.INIT_SCORE, ForkJoinPool.commonPool(), parallelism, budget, seed);
+		Player[] player = new Player[4];
+		player[0] = mc;
+		for(int i = 1 ; i < 4 ; i++){
+			player[i] = new AI("AI"+i, GameEngine.INIT_SCORE);
+		}
+		GameEngine engine = new GameEngine(player, 2, null);
+		long start = System.nanoTime();
+		while(engine.getHandsPlayed() < hands){
+			if(engine.isFinished()) engine.restart();
+			engine.playHand();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int[] scores = engine.getScores();
+		double others = (scores[1] + scores[2] + scores[3]) / 3.0 - GameEngine.INIT_SCORE;
+		System.out.printf("mãos=%d tempo=%.1fs buscas=%d simulações/busca=%.0f%n", hands, seconds,
+				mc.getSearches(), mc.getSearches() == 0 ? 0 : (double)mc.getRollouts() / mc.getSearches());
+		System.out.printf("pontos por mão: MonteCarlo=%+.0f AI=%+.0f%n",
+				(scores[0] - GameEngine.INIT_SCORE) / (double)hands, others / hands);
+	}
+}
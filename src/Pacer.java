@@ -0,0 +1,167 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ritmo de uma mesa: agenda cada turno do {@link GameEngine} em um
+ * {@link ScheduledExecutorService}, em vez de dormir na thread do jogo.
+ *
+ * <p>Antes de cada turno de uma {@link AI} a mesa espera o delay configurado
+ * sem ocupar nenhuma thread; o turno seguinte só é agendado quando o
+ * anterior termina, então o motor é usado por uma tarefa de cada vez. O
+ * delay é de cada mesa:</p>
+ * <ul>
+ * <li>{@link #SIMULATION} (0): as mãos são jogadas de uma vez, e a mesa só
+ * devolve a thread entre uma mão e outra;</li>
+ * <li>{@link #VIEWING} (1 s): para acompanhar as jogadas na GUI;</li>
+ * <li>{@link #fastForward()}: pula os delays até o fim da mão atual.</li>
+ * </ul>
+ *
+ * <p>Turnos de jogadores humanos não têm delay; a espera pela escolha do
+ * jogador continua na própria {@link PlayerGUI}.</p>
+ */
+public class Pacer implements AutoCloseable {
+
+	/** Sem delay */
+	public static final long SIMULATION = 0;
+
+	/** Delay para acompanhar as jogadas na GUI, em milissegundos */
+	public static final long VIEWING = 1000;
+
+	private static ScheduledExecutorService shared;
+
+	private final GameEngine engine;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+
+	/** Delay antes de cada turno de IA, em milissegundos */
+	private volatile long delay;
+
+	/** Pula os delays até o fim da mão atual */
+	private volatile boolean fastForward;
+
+	private volatile boolean stopped;
+
+	private boolean started;
+
+	/**
+	 * Agendador compartilhado pelas mesas, com uma thread daemon por núcleo.
+	 */
+	public static synchronized ScheduledExecutorService shared(){
+		if(shared == null){
+			shared = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+				Thread t = new Thread(r, "Pacer");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return shared;
+	}
+
+	/**
+	 * @param engine Mesa a jogar
+	 * @param delay Delay antes de cada turno de IA, em milissegundos
+	 */
+	public Pacer(GameEngine engine, long delay){
+		this(engine, delay, shared());
+	}
+
+	/**
+	 * @param engine Mesa a jogar
+	 * @param delay Delay antes de cada turno de IA, em milissegundos
+	 * @param scheduler Agendador dos turnos
+	 */
+	public Pacer(GameEngine engine, long delay, ScheduledExecutorService scheduler){
+		this.engine = engine;
+		this.scheduler = scheduler;
+		setDelay(delay);
+	}
+
+	public long getDelay(){
+		return delay;
+	}
+
+	/**
+	 * Muda o delay; vale a partir do próximo turno agendado.
+	 */
+	public void setDelay(long delay){
+		if(delay < 0){
+			throw new IllegalArgumentException("Delay negativo: " + delay);
+		}
+		this.delay = delay;
+	}
+
+	/**
+	 * Joga o resto da mão atual sem delay.
+	 */
+	public void fastForward(){
+		fastForward = true;
+	}
+
+	/**
+	 * Começa a jogar a partida até o fim.
+	 *
+	 * @return Completa quando {@link GameEngine#isFinished()}, ou quando a mesa
+	 *         é parada com {@link #close()}
+	 */
+	public synchronized CompletableFuture<Void> play(){
+		if(!started){
+			started = true;
+			schedule(0);
+		}
+		return done;
+	}
+
+	/**
+	 * Para a mesa depois do turno em andamento.
+	 */
+	@Override
+	public void close(){
+		stopped = true;
+	}
+
+	private void schedule(long millis){
+		if(millis == 0){
+			scheduler.execute(this::advance);
+		}
+		else{
+			scheduler.schedule(this::advance, millis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Delay antes do próximo turno: só quando uma IA vai comprar.
+	 */
+	private long nextDelay(){
+		if(fastForward || !engine.isHandInProgress()) return 0;
+		return engine.getPlayer(engine.getCurrent()) instanceof AI ? delay : 0;
+	}
+
+	/**
+	 * Executa um turno (ou, sem delay, a mão inteira) e agenda o próximo.
+	 */
+	private void advance(){
+		try {
+			if(stopped || (!engine.isHandInProgress() && engine.isFinished())){
+				done.complete(null);
+				return;
+			}
+			if(!engine.isHandInProgress()){
+				engine.beginHand();
+			}
+			else if(!engine.step()){
+				fastForward = false;
+			}
+			/* sem delay, a mão segue na mesma tarefa */
+			while(engine.isHandInProgress() && nextDelay() == 0 && !stopped){
+				if(!engine.step()) fastForward = false;
+			}
+			schedule(nextDelay());
+		} catch(Throwable e) {
+			done.completeExceptionally(e);
+		}
+	}
+}
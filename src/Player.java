@@ -1,10 +1,28 @@
 import java.util.*;
+import java.util.function.Supplier;
 
 public abstract class Player{
 	private String name;
+	private int score;
 	protected Hand hand;
+	protected VisibleTiles visible;//peças já visíveis na mesa, compartilhadas pela mesa {tiles already visible on the table}
+	protected HandSizes sizes;//mãos fechadas de cada assento, compartilhadas pela mesa {closed hand sizes of every seat}
+	protected DangerModel danger;//risco de cada peça contra cada assento, compartilhado pela mesa {deal-in risk per seat}
+	protected int seat;//assento absoluto deste jogador na mesa {this player's seat}
 	public Player(String s, int i){
 		name = s;
+		score = i;
+	}
+
+	//copy of the player's state for a claim query on another thread: own hand, table counts, hand sizes and danger model
+	protected Player(Player other){
+		name = other.name;
+		score = other.score;
+		hand = other.hand == null ? null : new Hand(other.hand);
+		visible = other.visible == null ? null : new VisibleTiles(other.visible);
+		sizes = other.sizes == null ? null : new HandSizes(other.sizes);
+		danger = other.danger == null ? null : new DangerModel(other.danger, visible);
+		seat = other.seat;
 	}
 
 	@Override
@@ -12,6 +30,22 @@ public abstract class Player{
 		return "Hi, I am Player "+name+".";
 	}
 
+	//the table's visible tiles, updated by Board as tiles hit the table
+	public void setVisibleTiles(VisibleTiles v){
+		visible = v;
+	}
+
+	//the table's closed hand sizes and this player's seat in them, updated by GameEngine as players meld
+	public void setHandSizes(HandSizes s, int seat){
+		sizes = s;
+		this.seat = seat;
+	}
+
+	//the table's danger model, queried with the seat given by setHandSizes
+	public void setDangerModel(DangerModel d){
+		danger = d;
+	}
+
 	//the 13 tiles at the beginning
 	public void initHand(ArrayList<ArrayList<Tile>> allTiles){
 		hand = new Hand(allTiles);
@@ -26,9 +60,30 @@ public abstract class Player{
 	//	else{//碰, 槓, 榮
 	//	
 	//	}
-	public abstract void failed();//上一個動作失敗了 {A ação anterior falhou}
+
+	//the claim this player would make on another player's discard, without changing the hand; null to pass
+	public abstract Action queryClaim(int from, Tile tile);//from 1下一家 2對家 3上一家 {1=Próxima casa 2=Casa dupla 3=Casa anterior}
+
+	//apply the claim returned by queryClaim; called only when the table chose it
+	//returns the claim as the table applies it, with the discard chosen now if it was not chosen before
+	public abstract Action commitClaim(Action claim, Tile tile);
+
+	//queryClaim to run on another thread, made on the table's thread; a table with a deadline drops it when it is late
+	//the default asks the live player, so it is only safe when the table waits for the answer
+	public Supplier<Action> claimQuery(int from, Tile tile){
+		return () -> queryClaim(from, tile);
+	}
+
+	//the claim returned by queryClaim lost to another claim
+	public void claimRejected(Action claim){
+	}
 
 	public void addScore(int s){
+		score += s;
+	}
+
+	public int getScore(){
+		return score;
 	}
 
 	public abstract void GameOver(int type, int from);//type 0流局 1榮 2自摸 from 0自摸 1下一家 2對家 3上一家 {tipo 0 jogo de fluxo 1 honra 2 autotoque de 0 autotoque 1 próxima família 2 pares família 3 família anterior}
@@ -18,11 +18,10 @@ public class PlayerGUI extends Player
 		myHand = new ArrayList<Tile>();
 	}
 	
-	public void failed()
+	@Override
+	public void claimRejected(Action claim)
 	{
 		c.frame.actionFail();
-		for(int i = discardTile.size()-1; i > 0; i--)
-			hand.add(discardTile.get(i));
 		c.renewGUI();
 	}
 	
@@ -35,11 +34,32 @@ public class PlayerGUI extends Player
 	}
 	
 	public Action doSomething(int from, Tile tile)
+	{
+		if(from != 0){
+			Action claim = queryClaim(from, tile);
+			if(claim != null)
+				return commitClaim(claim, tile);
+			return null;
+		}
+		c.frame.resetChoice();
+		action = -1;
+		
+		newTile = tile;
+		doSelect(from, newTile);
+		
+		if(action == -1)
+			return null;
+		return new Action(action, discardTile);
+	}
+	
+	//asks the player about a discard; the hand only changes in commitClaim
+	@Override
+	public Action queryClaim(int from, Tile tile)
 	{
 		c.frame.resetChoice();
 		action = -1;
 		
-		newTile = tile.copy();
+		newTile = tile;
 		doSelect(from, newTile);
 		
 		if(action == -1)
@@ -47,12 +67,26 @@ public class PlayerGUI extends Player
 		return new Action(action, discardTile);
 	}
 	
+	//the table chose this claim: take the tile, expose the meld and choose the discard
+	@Override
+	public Action commitClaim(Action claim, Tile tile)
+	{
+		if(claim.getType() == 7){
+			hand.add(tile);
+			getHand();
+			return claim;
+		}
+		discardTile = new ArrayList<Tile>(claim.getTiles());
+		applyMeld(claim.getType() == 3);
+		return new Action(claim.getType(), discardTile);
+	}
+	
 	private void doSelect(int from, Tile newTile)
 	{
 		boolean[] b = {false, false, false, false, false}; /*可做 吃, 碰, 槓, 聽, 胡*/ //{Pode comer, tocar, tocar, ouvir, bagunçar}
 		
 		int tempType = hand.chowable(newTile);
-		ArrayList<Tile> temp = hand.tingable(newTile);
+		boolean win = hand.isWinningWith(newTile);
 		
 		if(tempType != 0 && from == 3){
 			b[0] = true;
@@ -64,11 +98,8 @@ public class PlayerGUI extends Player
 		
 		b[2] = hand.kongable(newTile);
 		
-		if(temp == null)
+		if(win)
 			b[4] = true;
-		else if(temp.size() != 0 && from == 0){
-			//b[3] = true;
-		}
 		
 		if(from == 0){
 			hand.add(newTile);
@@ -95,19 +126,13 @@ public class PlayerGUI extends Player
 	
 	private void waitOK()
 	{
-		while(c.frame.ok == false){}
-		pushTile = new ArrayList<Tile>();
-		for(Tile t : c.frame.push)
-			pushTile.add(t.copy());
-		
-		c.frame.ok = false;
-		c.frame.push = new ArrayList<Tile>();
+		pushTile = new ArrayList<Tile>(c.frame.awaitAck());
 	}
 	
 	private void selectProcess(int chewType, Tile newTile, int from)
 	{
 		discardTile = new ArrayList<Tile>();
-		discardTile.add(new Tile(0));
+		discardTile.add(Tile.of(0));
 		if(choice[0]){
 			action = 1;
 			ArrayList<ArrayList<Tile>> chowOption = getChewChoice(chewType, newTile);
@@ -117,20 +142,20 @@ public class PlayerGUI extends Player
 			}
 			else{
 				for(int i = 0; i < 3; i++)
-					discardTile.add(pushTile.get(i).copy());
+					discardTile.add(pushTile.get(i));
 			}
 		}
 		else if(choice[1]){
 			action = 2;
 			for(int i = 0; i < 3; i++)
-				discardTile.add(newTile.copy());
+				discardTile.add(newTile);
 		}
 		else if(choice[2]){
 			action = 3;
 			if(from == 0)
 				action = 5;
 			for(int i = 0; i < 4; i++)
-				discardTile.add(newTile.copy());
+				discardTile.add(newTile);
 		}
 		else if(choice[3]){
 			action = 6;
@@ -141,14 +166,18 @@ public class PlayerGUI extends Player
 		{
 			if(from == 0)
 				action = 8;
-			else{
+			else
 				action = 7;
-				hand.add(newTile);
-			}
 			getHand();
 			discardTile.remove(0);
 			for(int i = 0; i < myHand.size(); i++)
 				discardTile.add(myHand.get(i));
+			if(from != 0){	//ron: a peça entra só na lista, a mão muda em commitClaim
+				int at = 0;
+				while(at < discardTile.size() && discardTile.get(at).getIndex() <= newTile.getIndex())
+					at++;
+				discardTile.add(at, newTile);
+			}
 			return;
 		}
 		else{
@@ -160,11 +189,18 @@ public class PlayerGUI extends Player
 			}
 		}
 		
+		if(from != 0)	//chamada: aplicada em commitClaim se a mesa escolher
+			return;
+		applyMeld(choice[2]);
+	}
+	
+	private void applyMeld(boolean kong)
+	{
 		for(int i = 1; i < discardTile.size() - 1; i++)
 			hand.discard(discardTile.get(i));
 		c.renewGUI();
 		
-		if(choice[2]){
+		if(kong){
 			discardTile.remove(0);
 		}
 		else{
@@ -187,21 +223,21 @@ public class PlayerGUI extends Player
 			ArrayList<Tile> temp1 = new ArrayList<Tile>();
 			temp1.add(newTile.getAdjacentTile(-2));
 			temp1.add(newTile.getAdjacentTile(-1));
-			temp1.add(newTile.copy());
+			temp1.add(newTile);
 			temp.add(temp1);
 		}
 		if((flag & 0b010) > 0){
 			ArrayList<Tile> temp1 = new ArrayList<Tile>();
 			temp1.add(newTile.getAdjacentTile(-1));
 			temp1.add(newTile.getAdjacentTile(1));
-			temp1.add(newTile.copy());
+			temp1.add(newTile);
 			temp.add(temp1);
 		}
 		if((flag & 0b100) > 0){
 			ArrayList<Tile> temp1 = new ArrayList<Tile>();
 			temp1.add(newTile.getAdjacentTile(1));
 			temp1.add(newTile.getAdjacentTile(2));
-			temp1.add(newTile.copy());
+			temp1.add(newTile);
 			temp.add(temp1);
 		}
 		return temp;
@@ -213,10 +249,7 @@ public class PlayerGUI extends Player
 		for(int i = 0; i < length; i++)
 			myHand.remove(0);
 		for(ArrayList<Tile> temp : hand.getAll())
-			for(Tile t : temp)
-				for(int i = 0; i < t.getSize(); i++){
-					myHand.add(new Tile(t.getIndex()));
-				}
+			myHand.addAll(temp);
 	}
 	
 	public void GameOver(int type, int from)
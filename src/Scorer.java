@@ -0,0 +1,551 @@
+/**
+ * Pontuação de uma vitória: han, fu e pagamentos.
+ *
+ * <p>A mão fechada chega como vetor de quantidades (com a peça da vitória) e
+ * os grupos expostos como códigos do {@link Decomposer} com os bits
+ * {@link #KONG} e {@link #OPEN}. Todas as decomposições da forma padrão são
+ * avaliadas, e para cada uma cada posição possível da peça da vitória; fica a
+ * de maior pontuação. Sete pares e treze órfãos são avaliados à parte.</p>
+ *
+ * <p>Os yaku que dependem só das peças presentes (tanyao, honitsu,
+ * chinitsu, ...) são testes de máscara sobre os 34 bits de presença; os que
+ * dependem da decomposição usam máscaras das sequências e trincas. Os pontos
+ * básicos e os pagamentos arredondados estão em tabelas pré-calculadas por
+ * han e fu.</p>
+ *
+ * <p>Regra da casa: uma mão completa sem nenhum yaku vale 1 han
+ * ({@link Yaku#NO_YAKU}), pois as IAs ainda não planejam yaku. Dora e ura
+ * dora somam han mas não contam como yaku; não são contados ippatsu,
+ * haitei, rinshan, chankan, riichi duplo nem honba.</p>
+ */
+public final class Scorer {
+
+	/** Bit de grupo com quatro peças (槓) */
+	public static final int KONG = 1 << 7;
+
+	/** Bit de grupo exposto (chamado de outro jogador) */
+	public static final int OPEN = 1 << 8;
+
+	/**
+	 * Yaku reconhecidos, com o han na mão fechada e na mão aberta (0 = só
+	 * fechada). Os yakuman valem 13 han cada.
+	 */
+	public enum Yaku {
+		RIICHI("立直", 1, 0),
+		TSUMO("門前清自摸和", 1, 0),
+		PINFU("平和", 1, 0),
+		TANYAO("斷么九", 1, 1),
+		IIPEIKOU("一盃口", 1, 0),
+		HAKU("役牌 白", 1, 1),
+		HATSU("役牌 發", 1, 1),
+		CHUN("役牌 中", 1, 1),
+		SEAT_WIND("自風", 1, 1),
+		ROUND_WIND("場風", 1, 1),
+		CHIITOITSU("七對子", 2, 0),
+		SANSHOKU("三色同順", 2, 1),
+		ITTSU("一氣通貫", 2, 1),
+		CHANTA("混全帶么九", 2, 1),
+		TOITOI("對對和", 2, 2),
+		SANANKOU("三暗刻", 2, 2),
+		SANSHOKU_DOUKOU("三色同刻", 2, 2),
+		SANKANTSU("三槓子", 2, 2),
+		SHOUSANGEN("小三元", 2, 2),
+		HONROUTOU("混老頭", 2, 2),
+		RYANPEIKOU("二盃口", 3, 0),
+		JUNCHAN("純全帶么九", 3, 2),
+		HONITSU("混一色", 3, 2),
+		CHINITSU("清一色", 6, 5),
+		KOKUSHI("國士無雙", 13, 0),
+		SUUANKOU("四暗刻", 13, 0),
+		DAISANGEN("大三元", 13, 13),
+		TSUUIISOU("字一色", 13, 13),
+		RYUUIISOU("綠一色", 13, 13),
+		CHINROUTOU("清老頭", 13, 13),
+		SHOUSUUSHII("小四喜", 13, 13),
+		DAISUUSHII("大四喜", 13, 13),
+		CHUUREN("九蓮寶燈", 13, 0),
+		SUUKANTSU("四槓子", 13, 13),
+		NO_YAKU("無役 (regra da casa)", 1, 1);
+
+		public final String name;
+		public final int closed;
+		public final int open;
+
+		Yaku(String name, int closed, int open){
+			this.name = name;
+			this.closed = closed;
+			this.open = open;
+		}
+
+		public long bit(){
+			return 1L << ordinal();
+		}
+	}
+
+	private static final Yaku[] YAKU = Yaku.values();
+
+	/** Máscara dos yakuman */
+	private static final long YAKUMAN = Yaku.KOKUSHI.bit() | Yaku.SUUANKOU.bit() | Yaku.DAISANGEN.bit()
+			| Yaku.TSUUIISOU.bit() | Yaku.RYUUIISOU.bit() | Yaku.CHINROUTOU.bit() | Yaku.SHOUSUUSHII.bit()
+			| Yaku.DAISUUSHII.bit() | Yaku.CHUUREN.bit() | Yaku.SUUKANTSU.bit();
+
+	/* máscaras de 34 bits sobre os índices das peças */
+	private static final long HONORS = 0x7FL << 27;
+	private static final long WINDS = 0xFL << 27;
+	private static final long DRAGONS = 0x7L << 31;
+	private static final long TERMINALS = 1L | 1L << 8 | 1L << 9 | 1L << 17 | 1L << 18 | 1L << 26;
+	private static final long YAOCHU = TERMINALS | HONORS;
+	private static final long GREEN = 1L << 19 | 1L << 20 | 1L << 21 | 1L << 23 | 1L << 25 | 1L << 32;
+	/** Sequências 123, 456 e 789 de um naipe (bits de início) */
+	private static final long ITTSU_STARTS = 1L | 1L << 3 | 1L << 6;
+
+	private static final int HAKU_INDEX = 33;
+	private static final int HATSU_INDEX = 32;
+	private static final int CHUN_INDEX = 31;
+
+	/** Maior han fora de yakuman nas tabelas (13+ é yakuman contado) */
+	private static final int MAX_HAN = 13;
+
+	/** Fu 20, 25, 30, ..., 170 (quatro kongs fechados de honra) indexados por fu / 5 - 4 */
+	private static final int FU_SLOTS = 31;
+
+	/** Multiplicadores de pagamento: não-dealer tsumo, dealer tsumo, ron, ron do dealer */
+	private static final int[] MULTIPLIER = {1, 2, 4, 6};
+
+	/** Pontos básicos por [han][fu] e pagamentos arredondados por [han][fu][multiplicador] */
+	private static final int[][] BASE = new int[MAX_HAN + 1][FU_SLOTS];
+	private static final int[][][] PAY = new int[MAX_HAN + 1][FU_SLOTS][MULTIPLIER.length];
+
+	static {
+		for(int han = 1; han <= MAX_HAN; han++){
+			for(int slot = 0; slot < FU_SLOTS; slot++){
+				int fu = (slot + 4) * 5;
+				int base;
+				if(han >= 13) base = 8000;
+				else if(han >= 11) base = 6000;
+				else if(han >= 8) base = 4000;
+				else if(han >= 6) base = 3000;
+				else base = Math.min(2000, fu << (2 + han));
+				BASE[han][slot] = base;
+				for(int k = 0; k < MULTIPLIER.length; k++){
+					PAY[han][slot][k] = roundUp(base * MULTIPLIER[k]);
+				}
+			}
+		}
+	}
+
+	private Scorer(){
+	}
+
+	private static int roundUp(int points){
+		return (points + 99) / 100 * 100;
+	}
+
+	/**
+	 * Resultado da pontuação de uma vitória.
+	 */
+	public static final class Result {
+		/** Han total (13 por yakuman) */
+		public final int han;
+		/** Fu arredondado */
+		public final int fu;
+		/** Yaku presentes, um bit por {@link Yaku#ordinal()} */
+		public final long yaku;
+		/** Pontos básicos (antes dos multiplicadores de pagamento) */
+		public final int base;
+		/** Dora e ura dora incluídos em {@link #han} */
+		public final int dora;
+
+		Result(int han, int fu, long yaku, int base, int dora){
+			this.han = han;
+			this.fu = fu;
+			this.yaku = yaku;
+			this.base = base;
+			this.dora = dora;
+		}
+
+		public boolean has(Yaku y){
+			return (yaku & y.bit()) != 0;
+		}
+
+		public boolean isYakuman(){
+			return (yaku & YAKUMAN) != 0;
+		}
+
+		/**
+		 * Pagamento de um jogador com o multiplicador dado, arredondado para
+		 * cima em centenas; vem das tabelas quando não é yakuman.
+		 */
+		private int pay(int k){
+			if(isYakuman()) return base * MULTIPLIER[k];
+			return PAY[Math.min(han, MAX_HAN)][fu / 5 - 4][k];
+		}
+
+		/**
+		 * Variação de pontos de cada jogador (índices absolutos de assento).
+		 *
+		 * @param winner Jogador que venceu
+		 * @param discarder Jogador que descartou a peça (ron), ou -1 para tsumo
+		 * @param dealer Dealer da mão
+		 * @return Vetor com 4 variações, somando zero
+		 */
+		public int[] payments(int winner, int discarder, int dealer){
+			int[] res = new int[4];
+			if(discarder >= 0){
+				int p = pay(winner == dealer ? 3 : 2);
+				res[discarder] -= p;
+				res[winner] += p;
+			}
+			else{
+				for(int i = 0; i < 4; i++){
+					if(i == winner) continue;
+					int p = pay(winner == dealer || i == dealer ? 1 : 0);
+					res[i] -= p;
+					res[winner] += p;
+				}
+			}
+			return res;
+		}
+
+		public String toString(){
+			StringBuilder s = new StringBuilder();
+			for(Yaku y : YAKU){
+				if(has(y)) s.append(y.name).append(' ');
+			}
+			if(dora > 0) s.append("寶牌").append(dora).append(' ');
+			return s.append(han).append("翻 ").append(fu).append("符 ").append(base).toString();
+		}
+	}
+
+	/**
+	 * Pontua uma mão completa.
+	 *
+	 * @param counts Quantidades da parte fechada, incluindo a peça da vitória
+	 * @param winTile Índice da peça da vitória
+	 * @param tsumo true se a peça foi comprada (自摸), false se foi ron
+	 * @param melds Grupos expostos e kongs (códigos do {@link Decomposer} com {@link #KONG}/{@link #OPEN})
+	 * @param meldCount Quantidade de grupos em {@code melds}
+	 * @param riichi true se o vencedor declarou riichi
+	 * @param roundWind Vento da rodada (0=東 ... 3=北)
+	 * @param seatWind Vento do vencedor (0=東 ... 3=北)
+	 * @return Resultado, ou null se a mão não está completa
+	 */
+	public static Result score(int[] counts, int winTile, boolean tsumo, int[] melds, int meldCount,
+			boolean riichi, int roundWind, int seatWind){
+		return score(counts, winTile, tsumo, melds, meldCount, riichi, roundWind, seatWind, null, 0);
+	}
+
+	/**
+	 * Pontua uma mão completa contando dora.
+	 *
+	 * @param dora Peças que são dora (uma entrada por indicador, repetidas se
+	 *        dois indicadores apontam a mesma peça), como em {@link Wall#getDora(int[], boolean)}
+	 * @param doraCount Quantidade de entradas em {@code dora}
+	 * @see #score(int[], int, boolean, int[], int, boolean, int, int)
+	 */
+	public static Result score(int[] counts, int winTile, boolean tsumo, int[] melds, int meldCount,
+			boolean riichi, int roundWind, int seatWind, int[] dora, int doraCount){
+		Evaluator e = new Evaluator(counts, winTile, tsumo, melds, meldCount, riichi, roundWind, seatWind);
+		e.dora = countDora(counts, melds, meldCount, dora, doraCount);
+		if(meldCount == 0 && Agari.isThirteenOrphans(counts)){
+			e.offer(Yaku.KOKUSHI.bit(), 0);
+		}
+		else{
+			Decomposer.forEach(counts, e);
+			if(meldCount == 0 && Agari.isSevenPairs(counts)){
+				e.offer(e.common | Yaku.CHIITOITSU.bit(), 25);
+			}
+		}
+		return e.best;
+	}
+
+	/**
+	 * Quantidade de dora na mão fechada e nos grupos expostos.
+	 */
+	private static int countDora(int[] counts, int[] melds, int meldCount, int[] dora, int doraCount){
+		int res = 0;
+		for(int d = 0; d < doraCount; d++){
+			int tile = dora[d];
+			res += counts[tile];
+			for(int i = 0; i < meldCount; i++){
+				int meld = melds[i];
+				if(Decomposer.contains(meld, tile)) res += (meld & KONG) != 0 ? 4 : Decomposer.isChow(meld) ? 1 : 3;
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Avalia cada decomposição e guarda a melhor.
+	 */
+	private static final class Evaluator implements Decomposer.Visitor {
+		final int[] counts;
+		final int winTile;
+		final boolean tsumo;
+		final int[] exposed;
+		final int exposedCount;
+		final boolean closed;
+		final int seatIndex;
+		final int roundIndex;
+		/** Yaku que não dependem da decomposição */
+		final long common;
+		/** Dora da mão, somados ao han fora de yakuman */
+		int dora;
+		Result best;
+
+		Evaluator(int[] counts, int winTile, boolean tsumo, int[] melds, int meldCount,
+				boolean riichi, int roundWind, int seatWind){
+			this.counts = counts;
+			this.winTile = winTile;
+			this.tsumo = tsumo;
+			exposed = melds;
+			exposedCount = meldCount;
+			seatIndex = 27 + seatWind;
+			roundIndex = 27 + roundWind;
+
+			boolean open = false;
+			long all = 0;
+			for(int i = 0; i < Hand.KINDS; i++){
+				if(counts[i] > 0) all |= 1L << i;
+			}
+			for(int i = 0; i < meldCount; i++){
+				int first = Decomposer.first(melds[i]);
+				all |= Decomposer.isChow(melds[i]) ? 7L << first : 1L << first;
+				if((melds[i] & OPEN) != 0) open = true;
+			}
+			closed = !open;
+			common = common(all, riichi);
+		}
+
+		private long common(long all, boolean riichi){
+			long res = 0;
+			if(riichi) res |= Yaku.RIICHI.bit();
+			if(closed && tsumo) res |= Yaku.TSUMO.bit();
+			if((all & YAOCHU) == 0) res |= Yaku.TANYAO.bit();
+			if((all & ~HONORS) == 0) res |= Yaku.TSUUIISOU.bit();
+			else if((all & ~TERMINALS) == 0) res |= Yaku.CHINROUTOU.bit();
+			else if((all & ~YAOCHU) == 0) res |= Yaku.HONROUTOU.bit();
+			if((all & ~GREEN) == 0) res |= Yaku.RYUUIISOU.bit();
+			for(int suit = 0; suit < 3; suit++){
+				long suitMask = Waits.SUIT_MASK[suit];
+				if((all & ~suitMask) == 0){
+					res |= Yaku.CHINITSU.bit();
+					if(closed && isNineGates(suit)) res |= Yaku.CHUUREN.bit();
+				}
+				else if((all & ~(suitMask | HONORS)) == 0){
+					res |= Yaku.HONITSU.bit();
+				}
+			}
+			return res;
+		}
+
+		/** 1112345678999 mais uma peça do mesmo naipe, tudo na mão fechada */
+		private boolean isNineGates(int suit){
+			int base = suit * 9;
+			if(counts[base] < 3 || counts[base + 8] < 3) return false;
+			for(int v = 1; v < 8; v++){
+				if(counts[base + v] == 0) return false;
+			}
+			return exposedCount == 0;
+		}
+
+		@Override
+		public void visit(int[] melds, int count, int pair){
+			/* a peça da vitória pode ter completado o par ou qualquer grupo que a contém */
+			if(pair == winTile) evaluate(melds, count, pair, -1);
+			for(int w = 0; w < count; w++){
+				if(Decomposer.contains(melds[w], winTile)) evaluate(melds, count, pair, w);
+			}
+		}
+
+		/**
+		 * Avalia uma decomposição com a peça da vitória no grupo {@code wait}
+		 * (-1 = no par).
+		 */
+		private void evaluate(int[] melds, int count, int pair, int wait){
+			int fu = 20;
+			int chows = 0;
+			long chowMask = 0;
+			/* inícios de sequência vistos duas e três vezes; cada par de
+			 * sequências iguais é um peikou (quatro iguais são dois pares) */
+			long twiceMask = 0;
+			long thriceMask = 0;
+			int peikou = 0;
+			long pungMask = 0;
+			int concealedPungs = 0;
+			int kongs = 0;
+			boolean allYaochu = (YAOCHU & 1L << pair) != 0;
+
+			for(int i = 0; i < count + exposedCount; i++){
+				int meld = i < count ? melds[i] : exposed[i - count];
+				int first = Decomposer.first(meld);
+				long bit = 1L << first;
+				if(Decomposer.isChow(meld)){
+					chows++;
+					if((thriceMask & bit) != 0){
+						peikou++;
+					}
+					else if((twiceMask & bit) != 0){
+						thriceMask |= bit;
+					}
+					else if((chowMask & bit) != 0){
+						twiceMask |= bit;
+						peikou++;
+					}
+					chowMask |= bit;
+					if(first % 9 != 0 && first % 9 != 6) allYaochu = false;
+					continue;
+				}
+				boolean kong = (meld & KONG) != 0;
+				/* trinca completada por ron conta como exposta */
+				boolean concealed = i < count ? !(i == wait && !tsumo) : (meld & OPEN) == 0;
+				boolean yaochu = (YAOCHU & bit) != 0;
+				pungMask |= bit;
+				if(concealed) concealedPungs++;
+				if(kong) kongs++;
+				if(!yaochu) allYaochu = false;
+				fu += (yaochu ? 4 : 2) * (concealed ? 2 : 1) * (kong ? 4 : 1);
+			}
+
+			/* par */
+			if(pair >= 31) fu += 2;
+			if(pair == seatIndex) fu += 2;
+			if(pair == roundIndex) fu += 2;
+			/* com quatro sequências o único fu até aqui é o do par */
+			boolean pairFu = fu > 20 && chows == 4;
+
+			/* espera: tanki, kanchan e penchan valem 2 fu */
+			boolean ryanmen = false;
+			if(wait < 0){
+				fu += 2;
+			}
+			else if(Decomposer.isChow(melds[wait])){
+				int first = Decomposer.first(melds[wait]);
+				int value = first % 9;
+				if(winTile == first + 1 || (value == 0 && winTile == first + 2) || (value == 6 && winTile == first)){
+					fu += 2;
+				}
+				else{
+					ryanmen = true;
+				}
+			}
+
+			long yaku = common;
+			boolean pinfu = closed && chows == 4 && !pairFu && ryanmen;
+			if(pinfu) yaku |= Yaku.PINFU.bit();
+			if(closed){
+				if(peikou == 2) yaku |= Yaku.RYANPEIKOU.bit();
+				else if(peikou == 1) yaku |= Yaku.IIPEIKOU.bit();
+			}
+			if((pungMask & 1L << HAKU_INDEX) != 0) yaku |= Yaku.HAKU.bit();
+			if((pungMask & 1L << HATSU_INDEX) != 0) yaku |= Yaku.HATSU.bit();
+			if((pungMask & 1L << CHUN_INDEX) != 0) yaku |= Yaku.CHUN.bit();
+			if((pungMask & 1L << seatIndex) != 0) yaku |= Yaku.SEAT_WIND.bit();
+			if((pungMask & 1L << roundIndex) != 0) yaku |= Yaku.ROUND_WIND.bit();
+			if((chowMask & chowMask >>> 9 & chowMask >>> 18 & 0x7F) != 0) yaku |= Yaku.SANSHOKU.bit();
+			if((pungMask & pungMask >>> 9 & pungMask >>> 18 & 0x1FF) != 0) yaku |= Yaku.SANSHOKU_DOUKOU.bit();
+			for(int suit = 0; suit < 3; suit++){
+				if((chowMask >>> (suit * 9) & ITTSU_STARTS) == ITTSU_STARTS) yaku |= Yaku.ITTSU.bit();
+			}
+			if(chows == 0) yaku |= Yaku.TOITOI.bit();
+			if(concealedPungs == 3) yaku |= Yaku.SANANKOU.bit();
+			if(concealedPungs == 4) yaku |= Yaku.SUUANKOU.bit();
+			if(kongs == 3) yaku |= Yaku.SANKANTSU.bit();
+			if(kongs == 4) yaku |= Yaku.SUUKANTSU.bit();
+			if(allYaochu && chows > 0){
+				boolean honors = ((pungMask | 1L << pair) & HONORS) != 0;
+				yaku |= honors ? Yaku.CHANTA.bit() : Yaku.JUNCHAN.bit();
+			}
+			int dragonPungs = Long.bitCount(pungMask & DRAGONS);
+			if(dragonPungs == 3) yaku |= Yaku.DAISANGEN.bit();
+			else if(dragonPungs == 2 && (DRAGONS & 1L << pair) != 0) yaku |= Yaku.SHOUSANGEN.bit();
+			int windPungs = Long.bitCount(pungMask & WINDS);
+			if(windPungs == 4) yaku |= Yaku.DAISUUSHII.bit();
+			else if(windPungs == 3 && (WINDS & 1L << pair) != 0) yaku |= Yaku.SHOUSUUSHII.bit();
+
+			if(pinfu && tsumo){
+				fu = 20;
+			}
+			else{
+				if(closed && !tsumo) fu += 10;
+				if(tsumo) fu += 2;
+				fu = Math.max(30, (fu + 9) / 10 * 10);
+			}
+			offer(yaku, fu);
+		}
+
+		/**
+		 * Calcula han e pontos básicos dos yaku e fica com o melhor resultado.
+		 */
+		void offer(long yaku, int fu){
+			int han;
+			int base;
+			if((yaku & YAKUMAN) != 0){
+				yaku &= YAKUMAN;
+				han = 13 * Long.bitCount(yaku);
+				base = 8000 * Long.bitCount(yaku);
+			}
+			else{
+				/* sete pares exclui os yaku de grupos; ryanpeikou inclui o iipeikou */
+				if((yaku & Yaku.RYANPEIKOU.bit()) != 0) yaku &= ~Yaku.IIPEIKOU.bit();
+				if((yaku & Yaku.CHINITSU.bit()) != 0) yaku &= ~Yaku.HONITSU.bit();
+				han = 0;
+				for(long bits = yaku; bits != 0; bits &= bits - 1){
+					Yaku y = YAKU[Long.numberOfTrailingZeros(bits)];
+					han += closed ? y.closed : y.open;
+				}
+				if(han == 0){
+					yaku |= Yaku.NO_YAKU.bit();
+					han = 1;
+				}
+				han += dora;
+				base = BASE[Math.min(han, MAX_HAN)][fu / 5 - 4];
+			}
+			if(best == null || base > best.base || (base == best.base && han > best.han)
+					|| (base == best.base && han == best.han && fu > best.fu)){
+				best = new Result(han, fu, yaku, base, (yaku & YAKUMAN) != 0 ? 0 : dora);
+			}
+		}
+	}
+	/**
+	 * Casos de conferência do peikou: três sequências iguais são um só
+	 * iipeikou, e 111222333 também pode ser sanankou.
+	 *
+	 * <p>Uso: {@code java Scorer}</p>
+	 */
+	public static void main(String args[]){
+		int[] none = new int[Decomposer.MAX_MELDS];
+		/* 111222333萬 456筒 77條: tsumo no 6筒 fica com sanankou */
+		int[] triple = {0, 0, 0, 1, 1, 1, 2, 2, 2, 12, 13, 14, 24, 24};
+		check("111222333 tsumo", score(counts(triple), 14, true, none, 0, false, 0, 0),
+				Yaku.SANANKOU, Yaku.RYANPEIKOU);
+		/* ron no 6筒: a peça entra numa sequência e as trincas continuam fechadas */
+		check("111222333 ron 6筒", score(counts(triple), 14, false, none, 0, false, 0, 0),
+				Yaku.SANANKOU, Yaku.RYANPEIKOU);
+		/* ron no 3萬 com riichi: a trinca 333 seria aberta, então vale o iipeikou */
+		check("111222333 riichi ron 3萬", score(counts(triple), 2, false, none, 0, true, 0, 0),
+				Yaku.IIPEIKOU, Yaku.RYANPEIKOU);
+		/* 112233萬 445566筒 77條: dois pares distintos de sequências */
+		int[] two = {0, 0, 1, 1, 2, 2, 12, 12, 13, 13, 14, 14, 24, 24};
+		check("ryanpeikou", score(counts(two), 14, false, none, 0, false, 0, 0),
+				Yaku.RYANPEIKOU, Yaku.IIPEIKOU);
+		/* 123123123123萬 77條: quatro sequências iguais são dois pares */
+		int[] four = {0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 24, 24};
+		check("quatro sequências iguais", score(counts(four), 24, false, none, 0, false, 0, 0),
+				Yaku.RYANPEIKOU, Yaku.IIPEIKOU);
+		System.out.println("ok");
+	}
+
+	private static int[] counts(int[] tiles){
+		int[] res = new int[Hand.KINDS];
+		for(int t : tiles) res[t]++;
+		return res;
+	}
+
+	private static void check(String name, Result result, Yaku expected, Yaku absent){
+		System.out.println(name + ": " + result);
+		if(!result.has(expected) || result.has(absent)){
+			throw new IllegalStateException(name + ": esperado " + expected.name + " sem " + absent.name);
+		}
+	}
+}
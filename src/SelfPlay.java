@@ -0,0 +1,322 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulação sem interface gráfica: mesas só com {@link AI}, sem delay, em
+ * todos os núcleos.
+ *
+ * <p>Os lotes de mãos são divididos em um {@link ForkJoinPool}; cada tarefa
+ * folha joga a sua parte em uma mesa própria e acumula os resultados em um
+ * {@link Stats} local, e os parciais são somados na volta das tarefas. Assim
+ * nenhuma contagem é compartilhada entre threads durante o jogo.</p>
+ *
+ * <p>Cada mesa recebe um gerador separado ({@link SplittableRandom#split()})
+ * da semente da simulação, então a mesma semente repete a simulação inteira
+ * e qualquer mão pode ser refeita sozinha a partir da semente da mesa e do
+ * número da mão. A mão mais lenta é informada no relatório com o comando
+ * para refazê-la; a primeira mão de cada mesa fica de fora, porque mede o
+ * aquecimento da JVM e não a mão.</p>
+ *
+ * <p>Com {@code planejadores} maior que 0, os primeiros assentos de cada
+ * mesa são {@link AI} com um {@link ExpectimaxPlanner} próprio (na
+ * profundidade padrão) e o relatório mostra os pontos por mão de cada
+ * assento.</p>
+ *
+ * <p>Uso: {@code java SelfPlay [mãos] [threads] [semente] [planejadores]} ou
+ * {@code java SelfPlay replay <semente da mesa> <mão> <vento> <mão no vento> [planejadores]}</p>
+ */
+public class SelfPlay {
+
+	/** Mãos jogadas por uma tarefa folha (uma mesa) */
+	private static final int BATCH = 2000;
+
+	/**
+	 * Resultados acumulados de um conjunto de mãos.
+	 */
+	public static class Stats {
+		long hands;
+		long draws;
+		long tsumo;
+		/** Vencedores por ron (um ron duplo conta 2) */
+		long ron;
+		/** Soma das compras até a vitória (turno da vitória) */
+		long winTurns;
+		/** Declarações de riichi */
+		long riichi;
+		long han;
+		long points;
+		/** Mão mais lenta: duração, semente da mesa, número da mão, vento e mão no vento */
+		long slowestNanos = -1;
+		long slowestSeed;
+		long slowestHand;
+		int slowestWind;
+		int slowestGame;
+		/** Pontos ganhos ou perdidos por assento, somados nas mesas */
+		final long[] seatPoints = new long[4];
+
+		void merge(Stats other){
+			hands += other.hands;
+			draws += other.draws;
+			tsumo += other.tsumo;
+			ron += other.ron;
+			winTurns += other.winTurns;
+			riichi += other.riichi;
+			han += other.han;
+			points += other.points;
+			for(int i = 0 ; i < 4 ; i++){
+				seatPoints[i] += other.seatPoints[i];
+			}
+			if(other.slowestNanos > slowestNanos){
+				slowestNanos = other.slowestNanos;
+				slowestSeed = other.slowestSeed;
+				slowestHand = other.slowestHand;
+				slowestWind = other.slowestWind;
+				slowestGame = other.slowestGame;
+			}
+		}
+
+		/**
+		 * Argumentos para refazer a mão mais lenta com {@code SelfPlay replay}.
+		 */
+		public String slowestReplay(){
+			return "replay " + slowestSeed + " " + slowestHand + " " + slowestWind + " " + slowestGame;
+		}
+
+		private static double rate(long part, long total){
+			return total == 0 ? 0 : (double)part / total;
+		}
+
+		public double drawRate(){
+			return rate(draws, hands);
+		}
+
+		public double tsumoRate(){
+			return rate(tsumo, hands);
+		}
+
+		public double ronRate(){
+			return rate(ron, hands);
+		}
+
+		/** Média de compras da mesa até a vitória */
+		public double averageWinTurn(){
+			return rate(winTurns, tsumo + ron);
+		}
+
+		/** Pontos por mão do assento */
+		public double seatPointsPerHand(int seat){
+			return rate(seatPoints[seat], hands);
+		}
+
+		/** Declarações de riichi por jogador por mão */
+		public double riichiRate(){
+			return rate(riichi, hands * 4);
+		}
+
+		public String toString(){
+			long wins = tsumo + ron;
+			return String.format("mãos=%d empate=%.1f%% tsumo=%.1f%% ron=%.1f%% turno médio=%.1f riichi=%.1f%% han médio=%.2f pontos médios=%.0f",
+					hands, drawRate() * 100, tsumoRate() * 100, ronRate() * 100, averageWinTurn(),
+					riichiRate() * 100, rate(han, wins), rate(points, wins));
+		}
+	}
+
+	/**
+	 * Observador que conta os resultados de uma mesa.
+	 */
+	private static class Counter implements GameListener {
+		final Stats stats = new Stats();
+		final Shuffler shuffler;
+		int turns;
+		int dealer;
+		long start;
+		long hand;
+		int wind;
+		int game;
+
+		Counter(Shuffler shuffler){
+			this.shuffler = shuffler;
+		}
+
+		@Override
+		public void handStarted(int wind, int game, int dealer){
+			turns = 0;
+			this.dealer = dealer;
+			this.wind = wind;
+			this.game = game;
+			hand = shuffler.getHand();
+			start = System.nanoTime();
+			stats.hands++;
+		}
+
+		@Override
+		public void turnStarting(int seat){
+			turns++;
+		}
+
+		@Override
+		public void actionTaken(int seat, Action action){
+			if(action.getType() == 6) stats.riichi++;
+		}
+
+		@Override
+		public void handEnded(int winner, int discarder, Action action, Scorer.Result result){
+			long nanos = System.nanoTime() - start;
+			/* a primeira mão da mesa paga o carregamento das classes e das tabelas */
+			if(stats.hands > 1 && nanos > stats.slowestNanos){
+				stats.slowestNanos = nanos;
+				stats.slowestSeed = shuffler.getSeed();
+				stats.slowestHand = hand;
+				stats.slowestWind = wind;
+				stats.slowestGame = game;
+			}
+			if(winner < 0){
+				stats.draws++;
+				return;
+			}
+			if(discarder < 0) stats.tsumo++;
+			else stats.ron++;
+			stats.winTurns += turns;
+			if(result != null){
+				stats.han += result.han;
+				int[] pay = result.payments(winner, discarder, dealer);
+				stats.points += pay[winner];
+			}
+		}
+	}
+
+	/**
+	 * Joga {@code hands} mãos, dividindo em lotes até o tamanho de uma mesa.
+	 */
+	private static class Task extends RecursiveTask<Stats> {
+		private static final long serialVersionUID = 1L;
+		private final long hands;
+		private final SplittableRandom random;
+		private final int planners;
+
+		Task(long hands, SplittableRandom random, int planners){
+			this.hands = hands;
+			this.random = random;
+			this.planners = planners;
+		}
+
+		@Override
+		protected Stats compute(){
+			if(hands <= BATCH){
+				/* o take do muro espera por ForkJoinPool.managedBlock, sem prender o worker */
+				try(Shuffler shuffler = new Shuffler(random).background()){
+					return playTable(hands, shuffler, planners);
+				}
+			}
+			Task left = new Task(hands / 2, random.split(), planners);
+			Task right = new Task(hands - hands / 2, random, planners);
+			left.fork();
+			Stats res = right.compute();
+			res.merge(left.join());
+			return res;
+		}
+	}
+
+	/**
+	 * Joga as mãos em uma mesa de 4 IAs. A partida recomeça sempre que
+	 * termina, para que o vento volte ao Leste.
+	 *
+	 * @param planners Assentos, a partir do 0, com um {@link ExpectimaxPlanner}
+	 */
+	static Stats playTable(long hands, Shuffler shuffler, int planners){
+		Counter counter = new Counter(shuffler);
+		GameEngine engine = new GameEngine(seatAI(planners), 2, counter, shuffler);
+		for(long i = 0 ; i < hands ; i++){
+			engine.playHand();
+			if(engine.isFinished()) engine.restart();
+		}
+		int[] scores = engine.getScores();
+		for(int i = 0 ; i < 4 ; i++){
+			counter.stats.seatPoints[i] += scores[i] - GameEngine.INIT_SCORE;
+		}
+		return counter.stats;
+	}
+
+	/**
+	 * Quatro IAs; as dos primeiros {@code planners} assentos escolhem o
+	 * descarte com um {@link ExpectimaxPlanner} próprio.
+	 */
+	static Player[] seatAI(int planners){
+		if(planners < 0 || planners > 4){
+			throw new IllegalArgumentException("Número de planejadores inválido: " + planners);
+		}
+		Player[] player = new Player[4];
+		for(int i = 0 ; i < 4 ; i++){
+			AI ai = new AI("SelfPlayAI"+i, GameEngine.INIT_SCORE);
+			if(i < planners) ai.setPlanner(new ExpectimaxPlanner());
+			player[i] = ai;
+		}
+		return player;
+	}
+
+	/**
+	 * Joga as mãos no pool informado.
+	 *
+	 * @param hands Total de mãos
+	 * @param seed Semente da simulação
+	 * @param pool Pool onde as mesas rodam
+	 * @param planners Assentos de cada mesa, a partir do 0, com um {@link ExpectimaxPlanner}
+	 * @return Resultados somados
+	 */
+	public static Stats run(long hands, long seed, ForkJoinPool pool, int planners){
+		return pool.invoke(new Task(hands, new SplittableRandom(seed), planners));
+	}
+
+	/**
+	 * Refaz uma única mão, imprimindo cada ação.
+	 *
+	 * @param seed Semente da mesa
+	 * @param hand Número da mão na mesa
+	 * @param wind Vento da rodada naquela mão
+	 * @param game Mão dentro do vento
+	 * @param planners Assentos, a partir do 0, com um {@link ExpectimaxPlanner}
+	 */
+	public static void replay(long seed, long hand, int wind, int game, int planners){
+		GameEngine engine = new GameEngine(seatAI(planners), 2, new GameListener(){
+			@Override
+			public void actionTaken(int seat, Action action){
+				System.out.println(seat+" "+Board.actionString[action.getType()]+" "+action.getTiles());
+			}
+
+			@Override
+			public void handEnded(int winner, int discarder, Action action, Scorer.Result result){
+				System.out.println("vencedor="+winner+" descarte="+discarder+" "+result);
+			}
+		}, Shuffler.replay(seed, hand));
+		engine.setRound(wind, game);
+		engine.playHand();
+	}
+
+	public static void main(String args[]){
+		if(args.length >= 5 && args[0].equals("replay")){
+			replay(Long.parseLong(args[1]), Long.parseLong(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+					args.length > 5 ? Integer.parseInt(args[5]) : 0);
+			return;
+		}
+		long hands = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : new SplittableRandom().nextLong();
+		int planners = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		long start = System.nanoTime();
+		Stats stats = run(hands, seed, pool, planners);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		System.out.println(stats);
+		System.out.printf("semente=%d threads=%d tempo=%.1fs mãos/s=%.0f%n", seed, threads, seconds, stats.hands / seconds);
+		System.out.printf("mão mais lenta: %.1fms (%s%s)%n", stats.slowestNanos / 1e6, stats.slowestReplay(),
+				planners > 0 ? " " + planners : "");
+		if(planners > 0){
+			System.out.printf("pontos por mão por assento (planejador em 0-%d): %+.0f %+.0f %+.0f %+.0f%n", planners - 1,
+					stats.seatPointsPerHand(0), stats.seatPointsPerHand(1), stats.seatPointsPerHand(2), stats.seatPointsPerHand(3));
+		}
+	}
+}
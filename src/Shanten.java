@@ -0,0 +1,371 @@
+import java.util.Arrays;
+
+/**
+ * Calculadora de shanten (distância até tenpai) baseada em tabelas pré-computadas.
+ *
+ * <p>Cada naipe numérico é reduzido a uma chave: as 9 quantidades (0-4) lidas
+ * como um número de 9 dígitos na base 5. Para cada chave a tabela guarda, em um
+ * único {@code long}, quantas peças faltam para que o naipe contenha
+ * {@code k} grupos (0-4), com e sem o par. As honras usam a mesma ideia com
+ * 7 dígitos e apenas trincas. Uma consulta consiste em quatro leituras de
+ * tabela e na combinação dos quatro naipes, sem nenhuma alocação.</p>
+ *
+ * <p>Convenção dos valores retornados:
+ * <ul>
+ *   <li><b>-1</b>: mão completa (agari)</li>
+ *   <li><b>0</b>: tenpai (falta uma peça)</li>
+ *   <li><b>n</b>: faltam n trocas para chegar ao tenpai</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Formas cobertas: mão padrão (4 grupos + par), sete pares (七對子) e
+ * treze órfãos (國士無雙). As duas últimas só valem para a mão fechada.</p>
+ */
+public final class Shanten {
+
+	/** Bits por campo no valor empacotado de cada linha da tabela */
+	private static final int FIELD_BITS = 5;
+
+	/** Máscara de um campo */
+	private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+	/** Campos por linha: k = 0..4 grupos sem par e k = 0..4 grupos com par */
+	private static final int FIELDS = 10;
+
+	/** Potências de 5 usadas para montar as chaves */
+	static final int[] POW5 = {1, 5, 25, 125, 625, 3125, 15625, 78125, 390625, 1953125};
+
+	/** Índices das peças terminais e de honra (么九牌) */
+	static final int[] ORPHANS = {0, 8, 9, 17, 18, 26, 27, 28, 29, 30, 31, 32, 33};
+
+	/**
+	 * Verifica se a peça é terminal ou de honra (um dos {@link #ORPHANS}).
+	 */
+	static boolean isOrphan(int index){
+		return index >= 27 || index % 9 == 0 || index % 9 == 8;
+	}
+
+	private Shanten(){
+	}
+
+	/**
+	 * Tabelas carregadas apenas no primeiro uso (idioma do holder), para que
+	 * quem não usa a calculadora não pague o custo de construção.
+	 */
+	private static final class Tables {
+		/** Linhas dos naipes numéricos, indexadas pela chave de 9 dígitos */
+		static final long[] NUMBER = build(9, true);
+
+		/** Linhas das honras, indexadas pela chave de 7 dígitos */
+		static final long[] HONOR = build(7, false);
+	}
+
+	/**
+	 * Calcula o shanten mínimo entre as três formas, deduzindo o número de
+	 * grupos que faltam a partir do total de peças (13/14 peças = 4 grupos,
+	 * 10/11 = 3, e assim por diante).
+	 *
+	 * @param counts Quantidade de cada tipo de peça (34 posições)
+	 * @return Shanten da mão
+	 */
+	public static int calculate(int[] counts){
+		int total = 0;
+		for(int c : counts) total += c;
+		int res = standard(counts, total / 3);
+		if(total >= 13){
+			res = Math.min(res, sevenPairs(counts));
+			res = Math.min(res, thirteenOrphans(counts));
+		}
+		return res;
+	}
+
+	/**
+	 * Shanten da forma padrão (grupos + par).
+	 *
+	 * @param counts Quantidade de cada tipo de peça
+	 * @param melds Número de grupos que ainda faltam formar na mão (4 - expostos)
+	 * @return Shanten da forma padrão
+	 */
+	public static int standard(int[] counts, int melds){
+		return standard(suitKey(counts, 0), suitKey(counts, 1), suitKey(counts, 2), suitKey(counts, 3), melds);
+	}
+
+	/**
+	 * Shanten da forma padrão a partir das chaves já calculadas de cada naipe.
+	 *
+	 * @param man Chave dos 萬
+	 * @param pin Chave dos 筒
+	 * @param sou Chave dos 條
+	 * @param honor Chave das honras
+	 * @param melds Número de grupos que ainda faltam formar na mão
+	 * @return Shanten da forma padrão
+	 */
+	public static int standard(int man, int pin, int sou, int honor, int melds){
+		return finish(combine(numberRow(man), numberRow(pin)), combine(numberRow(sou), honorRow(honor)), melds);
+	}
+
+	/**
+	 * Último passo da combinação: só o campo pedido (melds grupos + par) é
+	 * calculado, em vez da linha inteira.
+	 */
+	static int finish(long a, long b, int melds){
+		int best = Integer.MAX_VALUE;
+		for(int i = 0; i <= melds; i++){
+			best = min(best, field(a, 5 + i) + field(b, melds - i));
+			best = min(best, field(a, i) + field(b, 5 + melds - i));
+		}
+		return best - 1;
+	}
+
+	/** Bit mais baixo de cada um dos 10 campos de uma linha */
+	private static final long FIELD_LOW_BITS = 0x210842108421L;
+
+	/**
+	 * Retorna, no bit mais baixo de cada campo, 1 se o campo vale zero.
+	 * Usado para testar completude (distância 0) sem somar campo a campo.
+	 */
+	static long zeroFields(long row){
+		long any = row | (row >>> 1) | (row >>> 2) | (row >>> 3) | (row >>> 4);
+		return ~any & FIELD_LOW_BITS;
+	}
+
+	/**
+	 * Campos que, se forem zero na linha de um naipe, completam a mão junto
+	 * com a combinação {@code others} dos outros naipes (mesmo formato de
+	 * {@link #zeroFields}).
+	 */
+	static long completing(long others, int melds){
+		long res = 0;
+		for(int i = 0; i <= melds; i++){
+			if(field(others, melds - i) == 0) res |= 1L << ((5 + i) * FIELD_BITS);
+			if(field(others, 5 + melds - i) == 0) res |= 1L << (i * FIELD_BITS);
+		}
+		return res;
+	}
+
+	/**
+	 * Shanten de sete pares. Quatro peças iguais contam como um único par.
+	 *
+	 * @param counts Quantidade de cada tipo de peça
+	 * @return Shanten de sete pares
+	 */
+	public static int sevenPairs(int[] counts){
+		int pairs = 0;
+		int kinds = 0;
+		for(int c : counts){
+			if(c > 0) kinds++;
+			if(c >= 2) pairs++;
+		}
+		return sevenPairs(pairs, kinds);
+	}
+
+	static int sevenPairs(int pairs, int kinds){
+		return 6 - pairs + Math.max(0, 7 - kinds);
+	}
+
+	/**
+	 * Shanten de treze órfãos.
+	 *
+	 * @param counts Quantidade de cada tipo de peça
+	 * @return Shanten de treze órfãos
+	 */
+	public static int thirteenOrphans(int[] counts){
+		int kinds = 0;
+		boolean pair = false;
+		for(int i : ORPHANS){
+			if(counts[i] > 0) kinds++;
+			if(counts[i] >= 2) pair = true;
+		}
+		return thirteenOrphans(kinds, pair);
+	}
+
+	static int thirteenOrphans(int kinds, boolean pair){
+		return 13 - kinds - (pair ? 1 : 0);
+	}
+
+	/**
+	 * Monta a chave de um naipe: as quantidades lidas como dígitos na base 5,
+	 * com o valor 1 (índice 0) no dígito menos significativo.
+	 *
+	 * @param counts Quantidade de cada tipo de peça
+	 * @param suit Naipe (0-3)
+	 * @return Chave do naipe
+	 */
+	public static int suitKey(int[] counts, int suit){
+		int base = suit * 9;
+		int key = 0;
+		for(int v = (suit == 3 ? 6 : 8); v >= 0; v--){
+			key = key * 5 + counts[base + v];
+		}
+		return key;
+	}
+
+	static long numberRow(int key){
+		return Tables.NUMBER[key];
+	}
+
+	static long honorRow(int key){
+		return Tables.HONOR[key];
+	}
+
+	static int field(long row, int index){
+		return (int)((row >>> (index * FIELD_BITS)) & FIELD_MASK);
+	}
+
+	/**
+	 * Combina as linhas de dois grupos de naipes: para cada número total de
+	 * grupos, escolhe a melhor divisão entre os dois lados (o par fica em
+	 * apenas um deles). Cada campo vale no máximo 14, então a soma cabe nos
+	 * 5 bits sem saturar.
+	 */
+	static long combine(long a, long b){
+		int a0 = field(a, 0), a1 = field(a, 1), a2 = field(a, 2), a3 = field(a, 3), a4 = field(a, 4);
+		int a5 = field(a, 5), a6 = field(a, 6), a7 = field(a, 7), a8 = field(a, 8), a9 = field(a, 9);
+		int b0 = field(b, 0), b1 = field(b, 1), b2 = field(b, 2), b3 = field(b, 3), b4 = field(b, 4);
+		int b5 = field(b, 5), b6 = field(b, 6), b7 = field(b, 7), b8 = field(b, 8), b9 = field(b, 9);
+
+		long r0 = a0 + b0;
+		long r1 = min(a0 + b1, a1 + b0);
+		long r2 = min(min(a0 + b2, a1 + b1), a2 + b0);
+		long r3 = min(min(a0 + b3, a1 + b2), min(a2 + b1, a3 + b0));
+		long r4 = min(min(min(a0 + b4, a1 + b3), min(a2 + b2, a3 + b1)), a4 + b0);
+		long p0 = min(a5 + b0, a0 + b5);
+		long p1 = min(min(a5 + b1, a6 + b0), min(a0 + b6, a1 + b5));
+		long p2 = min(min(min(a5 + b2, a6 + b1), a7 + b0), min(min(a0 + b7, a1 + b6), a2 + b5));
+		long p3 = min(min(min(a5 + b3, a6 + b2), min(a7 + b1, a8 + b0)),
+				min(min(a0 + b8, a1 + b7), min(a2 + b6, a3 + b5)));
+		long p4 = min(min(min(min(a5 + b4, a6 + b3), min(a7 + b2, a8 + b1)), a9 + b0),
+				min(min(min(a0 + b9, a1 + b8), min(a2 + b7, a3 + b6)), a4 + b5));
+
+		return r0 | r1 << 5 | r2 << 10 | r3 << 15 | r4 << 20
+				| p0 << 25 | p1 << 30 | p2 << 35 | p3 << 40 | p4 << 45;
+	}
+
+	private static int min(int a, int b){
+		return a < b ? a : b;
+	}
+
+	/**
+	 * Constrói a tabela de um tipo de naipe.
+	 *
+	 * <p>Para cada alvo (k grupos, com ou sem par) marca as chaves que são
+	 * exatamente uma combinação completa, propaga a marca para as chaves que
+	 * contêm alguma delas e, em ordem decrescente, calcula a distância como
+	 * 1 + a menor distância obtida acrescentando uma peça.</p>
+	 *
+	 * @param digits Número de tipos de peça do naipe (9 ou 7)
+	 * @param shuns Se o naipe admite sequências
+	 * @return Linhas empacotadas, indexadas pela chave
+	 */
+	private static long[] build(int digits, boolean shuns){
+		int size = POW5[digits];
+		long[] table = new long[size];
+		boolean[] complete = new boolean[size];
+		byte[] distance = new byte[size];
+		int[] digit = new int[digits];
+
+		for(int slot = 0; slot < FIELDS; slot++){
+			Arrays.fill(complete, false);
+			int melds = slot % 5;
+			boolean pair = slot >= 5;
+			markTargets(complete, new int[digits], melds, 0, pair, shuns);
+
+			/* chaves que contêm uma combinação completa também estão completas */
+			Arrays.fill(digit, 0);
+			for(int key = 0; key < size; key++){
+				if(!complete[key]){
+					for(int i = 0; i < digits; i++){
+						if(digit[i] > 0 && complete[key - POW5[i]]){
+							complete[key] = true;
+							break;
+						}
+					}
+				}
+				increment(digit);
+			}
+
+			/* distância = 1 + melhor vizinho com uma peça a mais */
+			for(int i = 0; i < digits; i++) digit[i] = 4;
+			for(int key = size - 1; key >= 0; key--){
+				if(complete[key]){
+					distance[key] = 0;
+				}
+				else{
+					int best = Byte.MAX_VALUE;
+					for(int i = 0; i < digits; i++){
+						if(digit[i] < 4) best = Math.min(best, distance[key + POW5[i]]);
+					}
+					distance[key] = (byte)(best + 1);
+				}
+				table[key] |= (long)Math.min(distance[key], (int)FIELD_MASK) << (slot * FIELD_BITS);
+				decrement(digit);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Marca recursivamente todas as combinações de {@code melds} grupos
+	 * (mais o par, se pedido) que cabem em 4 cópias por peça.
+	 */
+	private static void markTargets(boolean[] complete, int[] need, int melds, int from, boolean pair, boolean shuns){
+		if(melds == 0){
+			if(pair){
+				for(int v = 0; v < need.length; v++){
+					if(need[v] + 2 <= 4){
+						need[v] += 2;
+						complete[key(need)] = true;
+						need[v] -= 2;
+					}
+				}
+			}
+			else{
+				complete[key(need)] = true;
+			}
+			return;
+		}
+		/* grupos em ordem não decrescente: 0-8 trincas, 9-15 sequências */
+		int kinds = need.length + (shuns ? need.length - 2 : 0);
+		for(int g = from; g < kinds; g++){
+			if(g < need.length){
+				if(need[g] + 3 > 4) continue;
+				need[g] += 3;
+				markTargets(complete, need, melds - 1, g, pair, shuns);
+				need[g] -= 3;
+			}
+			else{
+				int v = g - need.length;
+				if(need[v] == 4 || need[v+1] == 4 || need[v+2] == 4) continue;
+				need[v]++;
+				need[v+1]++;
+				need[v+2]++;
+				markTargets(complete, need, melds - 1, g, pair, shuns);
+				need[v]--;
+				need[v+1]--;
+				need[v+2]--;
+			}
+		}
+	}
+
+	private static int key(int[] digit){
+		int key = 0;
+		for(int i = digit.length - 1; i >= 0; i--){
+			key = key * 5 + digit[i];
+		}
+		return key;
+	}
+
+	private static void increment(int[] digit){
+		for(int i = 0; i < digit.length; i++){
+			if(++digit[i] < 5) return;
+			digit[i] = 0;
+		}
+	}
+
+	private static void decrement(int[] digit){
+		for(int i = 0; i < digit.length; i++){
+			if(--digit[i] >= 0) return;
+			digit[i] = 4;
+		}
+	}
+}
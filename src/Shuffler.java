@@ -1,61 +1,179 @@
+import java.util.SplittableRandom;
 
+/**
+ * Muro de peças embaralhado de forma reproduzível.
+ *
+ * <p>Cada embaralhamento é o número de uma mão; a permutação da mão {@code n}
+ * depende só da semente e de {@code n} (ela sempre parte da ordem inicial),
+ * então qualquer mão pode ser refeita com {@link #replay(long, long)}. Cada
+ * mão tem o seu próprio {@link SplittableRandom}, sem estado compartilhado
+ * entre mesas ou threads.</p>
+ *
+ * <p>As peças embaralhadas ficam em um {@link Wall}, que separa o muro vivo
+ * do muro morto. Com {@link #background()} os próximos muros são
+ * embaralhados antes, em uma thread de fundo ({@link WallProducer}).</p>
+ */
+public class Shuffler implements AutoCloseable {
 
-public class Shuffler {
-	
 	Shuffler(){
-		setSize(136);	
+		this(new SplittableRandom().nextLong());
 	}
 
 	Shuffler(int N){
-		setSize(N);	
+		this(N, new SplittableRandom().nextLong());
 	}
-	
-	public int[] index;
-	public int count = 0;
-	private int left = 14;
 
+	/**
+	 * @param seed Semente da sequência de muros
+	 */
+	Shuffler(long seed){
+		this(136, seed);
+	}
+
+	/**
+	 * Cria um muro com a semente tirada de outro gerador, por exemplo de um
+	 * {@link SplittableRandom#split()} por mesa.
+	 */
+	Shuffler(SplittableRandom source){
+		this(source.nextLong());
+	}
+
+	Shuffler(int N, long seed){
+		this.seed = seed;
+		setSize(N);
+	}
+
+	/** Muro da mão atual */
+	private Wall wall;
+
+	/** Embaralhador de fundo, ou null para embaralhar na hora */
+	private WallProducer producer;
+
+	/** Semente da sequência de muros */
+	private final long seed;
+
+	/** Número do próximo embaralhamento */
+	private long nextHand = 0;
+
+	/** Número da mão do muro atual */
+	private long hand = -1;
+
+	/**
+	 * Cria um muro posicionado na mão {@code hand} da sequência da semente.
+	 *
+	 * @param seed Semente da sequência
+	 * @param hand Número da mão (0 = primeira)
+	 * @return Muro com a mesma ordem de peças daquela mão
+	 */
+	public static Shuffler replay(long seed, long hand){
+		Shuffler res = new Shuffler(seed);
+		res.seek(hand);
+		return res;
+	}
+
+	public long getSeed(){
+		return seed;
+	}
+
+	/**
+	 * Número da mão do muro atual (0 = primeira).
+	 */
+	public long getHand(){
+		return hand;
+	}
 
-	
-	public void setSize(int N){					
-		if (index == null || N != index.length){
-			index = new int[N];
-			initializeIndex();
+	/**
+	 * Muro da mão atual.
+	 */
+	public Wall getWall(){
+		return wall;
+	}
+
+	/**
+	 * Embaralha de novo o muro como o da mão {@code hand}; as mãos seguintes
+	 * continuam a sequência a partir dela.
+	 */
+	public void seek(long hand){
+		nextHand = hand;
+		if(producer != null) producer.restart(hand);
+		permuteIndex();
+	}
+
+	/**
+	 * Passa a gerar os próximos muros em uma thread de fundo. A sequência de
+	 * muros é a mesma; o muro atual não muda.
+	 *
+	 * @return Este muro
+	 */
+	public Shuffler background(){
+		if(producer == null){
+			producer = new WallProducer(seed, nextHand, wall.size(), WallProducer.DEFAULT_CAPACITY);
+		}
+		return this;
+	}
+
+	/**
+	 * Para a thread de fundo, se houver.
+	 */
+	@Override
+	public void close(){
+		if(producer != null){
+			producer.close();
+			producer = null;
+		}
+	}
+
+	public void setSize(int N){
+		if (wall == null || N != wall.size()){
+			close();
+			wall = new Wall(N);
 			permuteIndex();
 		}
 	}
-	
-	public void initializeIndex(){				
-		for(int i=0;i<index.length;i++)
-			index[i] = i;
+
+	public void permuteIndex(){
+		if(producer != null){
+			hand = producer.take(wall.tiles);
+			nextHand = hand + 1;
+		}
+		else{
+			hand = nextHand++;
+			shuffle(wall.tiles, seed, hand);
+		}
+		wall.reset();
 	}
 
-	public void permuteIndex(){					
-		java.util.Random rnd = new java.util.Random();
-		for(int i=index.length-1;i>=0;i--){
+	/**
+	 * Gera o muro da mão {@code hand}: parte da ordem inicial (4 cópias de
+	 * cada tipo) e permuta com o gerador da mão.
+	 */
+	static void shuffle(byte[] wall, long seed, long hand){
+		SplittableRandom rnd = forHand(seed, hand);
+		for(int i=0;i<wall.length;i++)
+			wall[i] = (byte)(i/4);
+		for(int i=wall.length-1;i>=0;i--){
 			int j = rnd.nextInt(i+1);
-			int tmp = index[j];
-			index[j] = index[i];
-			index[i] = tmp;
+			byte tmp = wall[j];
+			wall[j] = wall[i];
+			wall[i] = tmp;
 		}
-		left = 14;
-		count = 0;
 	}
 
-	public void ackKong(){
-		left++;
+	/**
+	 * Gerador da mão: a semente e o número da mão são misturados para que
+	 * mãos vizinhas tenham sequências independentes.
+	 */
+	private static SplittableRandom forHand(long seed, long hand){
+		return new SplittableRandom(seed ^ (hand * 0x9E3779B97F4A7C15L));
 	}
 
-	public Tile getNext(){		
-		Tile res;				
-		int next = index[count++];
-		if (count > index.length - left){
-			permuteIndex();
-			return null;
-		}
-	
-		res = new Tile(next/4);
-		
-		return res;
+	/**
+	 * Compra a próxima peça do muro vivo.
+	 *
+	 * @return A peça, ou null se o muro vivo acabou
+	 */
+	public Tile getNext(){
+		int next = wall.draw();
+		return next < 0 ? null : Tile.of(next);
 	}
 }
-
@@ -0,0 +1,378 @@
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hospeda muitas mesas na mesma JVM, cada uma na sua própria thread.
+ *
+ * <p>Quando a JVM tem threads virtuais (Java 21+), cada mesa roda em uma
+ * thread virtual, obtida por reflexão para que o código continue compilando
+ * no Java 17; senão, em um pool de threads de plataforma sob demanda. O
+ * limite vale para as threads: as mesas criadas além dele esperam numa fila,
+ * sem thread, e a thread de cada mesa que termina joga a próxima da
+ * fila.</p>
+ *
+ * <p>Ciclo de vida: {@link #create} abre uma mesa, {@link #pause} e
+ * {@link #resume} seguram todas as mesas entre um turno e outro,
+ * {@link #drain} recusa novas mesas e espera as abertas terminarem, e
+ * {@link #stop} encerra as mesas depois do turno em andamento. O tempo de
+ * cada turno ({@link GameEngine#step()}) é acumulado em um histograma por
+ * potência de 2.</p>
+ *
+ * <p>Uso: {@code java TableHost [mesas] [limite] [mãos por mesa] [planejadores]},
+ * com as mesas do {@link SelfPlay#seatAI(int)}.</p>
+ */
+public class TableHost implements AutoCloseable {
+
+	/** Situação de uma mesa */
+	public enum State {
+		/** Esperando vaga no limite de mesas */
+		QUEUED,
+		RUNNING,
+		/** Terminou as mãos pedidas ou foi parada */
+		DONE,
+		FAILED
+	}
+
+	/**
+	 * Uma mesa hospedada.
+	 */
+	public final class Table {
+		private final GameEngine engine;
+		private final long hands;
+		private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+		private volatile State state = State.QUEUED;
+
+		private Table(GameEngine engine, long hands){
+			this.engine = engine;
+			this.hands = hands;
+		}
+
+		public GameEngine getEngine(){
+			return engine;
+		}
+
+		public State getState(){
+			return state;
+		}
+
+		/**
+		 * Completa quando a mesa termina.
+		 */
+		public CompletableFuture<Void> getDone(){
+			return done;
+		}
+
+		private void run(){
+			try {
+				if(stopped){
+					finish(State.DONE, null);
+					return;
+				}
+				state = State.RUNNING;
+				while(engine.getHandsPlayed() < hands && !stopped){
+					if(engine.isFinished()) engine.restart();
+					engine.beginHand();
+					boolean more = true;
+					while(more && !stopped){
+						if(paused) awaitResume();
+						long start = System.nanoTime();
+						more = engine.step();
+						record(System.nanoTime() - start);
+					}
+				}
+				finish(State.DONE, null);
+			} catch(Throwable e) {
+				finish(State.FAILED, e);
+			}
+		}
+
+		private void finish(State end, Throwable error){
+			state = end;
+			synchronized(TableHost.this){
+				open--;
+				TableHost.this.notifyAll();
+			}
+			if(error == null) done.complete(null);
+			else done.completeExceptionally(error);
+		}
+	}
+
+	/** Buckets do histograma: o bucket {@code b} conta turnos de [2^b, 2^(b+1)) ns */
+	private static final int BUCKETS = 64;
+
+	private final ExecutorService executor;
+
+	private final boolean virtual;
+
+	private final int limit;
+
+	/** Mesas abertas (na fila ou jogando) */
+	private int open;
+
+	/** Vagas do limite em uso: mesas entregues ao executor */
+	private int running;
+
+	/** Mesas esperando vaga, na ordem de criação */
+	private final ArrayDeque<Table> pending = new ArrayDeque<Table>();
+
+	private boolean draining;
+
+	private volatile boolean stopped;
+
+	private volatile boolean paused;
+
+	private final List<Table> tables = new ArrayList<Table>();
+
+	private final AtomicLong moves = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * @param limit Máximo de mesas jogando ao mesmo tempo
+	 */
+	public TableHost(int limit){
+		if(limit <= 0){
+			throw new IllegalArgumentException("Limite de mesas inválido: " + limit);
+		}
+		this.limit = limit;
+		ExecutorService virtualExecutor = newVirtualExecutor();
+		virtual = virtualExecutor != null;
+		executor = virtual ? virtualExecutor : Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "Table");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * {@code Executors.newVirtualThreadPerTaskExecutor()} quando existe, ou null.
+	 */
+	private static ExecutorService newVirtualExecutor(){
+		try {
+			Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)m.invoke(null);
+		} catch(ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Verifica se as mesas rodam em threads virtuais.
+	 */
+	public boolean isVirtual(){
+		return virtual;
+	}
+
+	public int getLimit(){
+		return limit;
+	}
+
+	/**
+	 * Abre uma mesa e começa a jogar assim que houver vaga no limite.
+	 *
+	 * @param players Os 4 jogadores, por assento
+	 * @param rounds Número de ventos da partida (1 = 東風戰, 2 = 東南戰)
+	 * @param listener Observador, ou null
+	 * @param shuffler Muro da mesa
+	 * @param hands Mãos a jogar; a partida recomeça quando termina
+	 * @return A mesa
+	 * @throws IllegalStateException se o host está esvaziando, parado ou
+	 *         fechado
+	 */
+	public Table create(Player[] players, int rounds, GameListener listener, Shuffler shuffler, long hands){
+		Table table = new Table(new GameEngine(players, rounds, listener, shuffler), hands);
+		boolean start;
+		synchronized(this){
+			if(draining || stopped){
+				throw new IllegalStateException("TableHost não aceita novas mesas");
+			}
+			open++;
+			tables.add(table);
+			start = running < limit;
+			if(start) running++;
+			else pending.add(table);
+		}
+		if(start){
+			try {
+				executor.execute(() -> play(table));
+			} catch(RejectedExecutionException e) {
+				synchronized(this){
+					open--;
+					running--;
+					tables.remove(table);
+					notifyAll();
+				}
+				throw new IllegalStateException("TableHost não aceita novas mesas", e);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Joga a mesa e depois, na mesma thread, as mesas da fila, até a fila
+	 * esvaziar e a vaga ser devolvida.
+	 */
+	private void play(Table first){
+		for(Table table = first; table != null; table = next()){
+			table.run();
+		}
+	}
+
+	/** Próxima mesa da fila, ou null liberando a vaga */
+	private synchronized Table next(){
+		Table table = pending.poll();
+		if(table == null) running--;
+		return table;
+	}
+
+	/**
+	 * Mesas criadas, na ordem de criação.
+	 */
+	public synchronized List<Table> getTables(){
+		return new ArrayList<Table>(tables);
+	}
+
+	/**
+	 * Mesas abertas (na fila ou jogando).
+	 */
+	public synchronized int getOpen(){
+		return open;
+	}
+
+	/**
+	 * Segura todas as mesas antes do próximo turno.
+	 */
+	public void pause(){
+		paused = true;
+	}
+
+	public synchronized void resume(){
+		paused = false;
+		notifyAll();
+	}
+
+	private synchronized void awaitResume() throws InterruptedException {
+		while(paused && !stopped){
+			wait();
+		}
+	}
+
+	/**
+	 * Recusa novas mesas e espera as abertas terminarem.
+	 *
+	 * @return true se todas terminaram dentro do prazo
+	 */
+	public synchronized boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+		draining = true;
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(open > 0){
+			long left = deadline - System.nanoTime();
+			if(left <= 0) return false;
+			TimeUnit.NANOSECONDS.timedWait(this, left);
+		}
+		return true;
+	}
+
+	/**
+	 * Encerra as mesas depois do turno em andamento; as mesas na fila não
+	 * chegam a jogar.
+	 */
+	public void stop(){
+		List<Table> dropped;
+		synchronized(this){
+			stopped = true;
+			paused = false;
+			notifyAll();
+			dropped = new ArrayList<Table>(pending);
+			pending.clear();
+		}
+		for(Table table : dropped){
+			table.finish(State.DONE, null);
+		}
+	}
+
+	/**
+	 * Para as mesas e libera as threads.
+	 */
+	@Override
+	public void close(){
+		stop();
+		executor.shutdown();
+	}
+
+	private void record(long nanos){
+		moves.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+		histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+	}
+
+	/**
+	 * Turnos jogados em todas as mesas.
+	 */
+	public long getMoves(){
+		return moves.get();
+	}
+
+	/**
+	 * Tempo médio de um turno, em nanossegundos.
+	 */
+	public double averageNanos(){
+		long n = moves.get();
+		return n == 0 ? 0 : (double)totalNanos.get() / n;
+	}
+
+	public long maxNanos(){
+		return maxNanos.get();
+	}
+
+	/**
+	 * Tempo de turno no percentil pedido, pelo limite superior do bucket.
+	 *
+	 * @param p Percentil entre 0 e 1
+	 * @return Nanossegundos
+	 */
+	public long percentileNanos(double p){
+		long n = moves.get();
+		long target = (long)Math.ceil(p * n);
+		long seen = 0;
+		for(int b = 0; b < BUCKETS; b++){
+			seen += histogram.get(b);
+			if(seen >= target && seen > 0) return b >= 62 ? Long.MAX_VALUE : 1L << (b + 1);
+		}
+		return 0;
+	}
+
+	public String toString(){
+		return String.format("TableHost[%s, limite=%d, abertas=%d, turnos=%d, médio=%.1fµs, p50<%.1fµs, p99<%.1fµs, máx=%.1fms]",
+				virtual ? "threads virtuais" : "pool de threads", limit, getOpen(), getMoves(), averageNanos() / 1e3,
+				percentileNanos(0.5) / 1e3, percentileNanos(0.99) / 1e3, maxNanos() / 1e6);
+	}
+
+	public static void main(String args[]) throws InterruptedException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int limit = args.length > 1 ? Integer.parseInt(args[1]) : count;
+		long hands = args.length > 2 ? Long.parseLong(args[2]) : 8;
+		int planners = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		try(TableHost host = new TableHost(limit)){
+			long start = System.nanoTime();
+			for(int i = 0 ; i < count ; i++){
+				host.create(SelfPlay.seatAI(planners), 2, null, new Shuffler(), hands);
+			}
+			host.drain(1, TimeUnit.DAYS);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(host);
+			System.out.printf("mesas=%d tempo=%.1fs turnos/s=%.0f%n", count, seconds, host.getMoves() / seconds);
+		}
+	}
+}
@@ -0,0 +1,406 @@
+import java.util.Arrays;
+
+/**
+ * Estado compacto de uma mesa para busca: mãos, peças visíveis, grupos,
+ * riichi, vez e peças restantes no muro vivo.
+ *
+ * <p>Os lances são {@code int} ({@link #move}) e são aplicados com
+ * {@link #apply(int)} e desfeitos com {@link #undo()} sobre uma pilha, sem
+ * copiar mãos: as mãos são {@link Hand} com shanten incremental, as peças
+ * são os {@link Tile} compartilhados e a pilha só cresce quando a busca fica
+ * mais profunda do que nunca. Um nó de busca custa um {@code apply} e um
+ * {@code undo}.</p>
+ *
+ * <p>Os tipos seguem os códigos de {@link Action} (1 chow ... 8 tsumo), com
+ * a compra e o descarte separados em {@link #DRAW} e {@link #DISCARD}. A
+ * reposição de um kong é um {@link #DRAW} comum: cada kong encurta o muro
+ * vivo em uma peça, e a conta de peças restantes é a mesma.</p>
+ */
+public final class TableState {
+
+	/** Compra uma peça (do muro vivo ou a reposição de um kong) */
+	public static final int DRAW = 0;
+	/** Chow do último descarte; {@link #first} é a menor peça do grupo */
+	public static final int CHOW = 1;
+	/** Pong do último descarte */
+	public static final int PONG = 2;
+	/** Kong do último descarte */
+	public static final int KONG = 3;
+	/** Kong adicionado a um pong exposto */
+	public static final int ADDED_KONG = 4;
+	/** Kong fechado */
+	public static final int CONCEALED_KONG = 5;
+	/** Descarte declarando riichi */
+	public static final int RIICHI = 6;
+	/** Ron sobre o último descarte */
+	public static final int RON = 7;
+	/** Vitória com a peça comprada (自摸) */
+	public static final int HU = 8;
+	/** Descarte */
+	public static final int DISCARD = 9;
+
+	private final Hand[] hands = new Hand[4];
+
+	private final VisibleTiles visible = new VisibleTiles();
+
+	/** Grupos expostos e kongs de cada assento, no formato do {@link Scorer} */
+	private final int[][] melds = new int[4][Decomposer.MAX_MELDS];
+
+	private final int[] meldCount = new int[4];
+
+	/** Assentos em riichi, um bit por assento */
+	private int riichi;
+
+	/** Assento da vez */
+	private int current;
+
+	/** Último descarte que ainda pode ser chamado, ou -1 */
+	private int lastDiscard = -1;
+
+	private int lastDiscarder = -1;
+
+	private int winner = -1;
+
+	/** Peças restantes no muro vivo */
+	private int remaining;
+
+	/** Dois inteiros por lance: o lance e o estado anterior compactado */
+	private int[] stack = new int[128];
+
+	private int depth;
+
+	public TableState(){
+		for(int i = 0; i < 4; i++){
+			hands[i] = new Hand();
+		}
+	}
+
+	/**
+	 * Codifica um lance.
+	 *
+	 * @param type Tipo ({@link #DRAW} ... {@link #DISCARD})
+	 * @param seat Assento que faz o lance
+	 * @param tile Peça comprada, descartada, chamada ou do kong
+	 */
+	public static int move(int type, int seat, int tile){
+		return type | seat << 4 | tile << 6;
+	}
+
+	/**
+	 * Codifica um chow.
+	 *
+	 * @param seat Assento que chama
+	 * @param tile Peça chamada
+	 * @param first Menor peça do grupo
+	 */
+	public static int chow(int seat, int tile, int first){
+		return move(CHOW, seat, tile) | first << 12;
+	}
+
+	public static int type(int move){
+		return move & 15;
+	}
+
+	public static int seat(int move){
+		return move >>> 4 & 3;
+	}
+
+	public static int tile(int move){
+		return move >>> 6 & 63;
+	}
+
+	public static int first(int move){
+		return move >>> 12 & 63;
+	}
+
+	/**
+	 * Limpa a mesa e a pilha.
+	 *
+	 * @param current Assento da vez
+	 * @param remaining Peças no muro vivo
+	 */
+	public void reset(int current, int remaining){
+		for(int i = 0; i < 4; i++){
+			for(int t = 0; t < Hand.KINDS; t++){
+				while(hands[i].getCount(t) > 0) hands[i].discard(Tile.of(t));
+			}
+			meldCount[i] = 0;
+		}
+		visible.reset();
+		riichi = 0;
+		this.current = current;
+		lastDiscard = -1;
+		lastDiscarder = -1;
+		winner = -1;
+		this.remaining = remaining;
+		depth = 0;
+	}
+
+	/**
+	 * Define a parte fechada da mão de um assento (fora da pilha).
+	 */
+	public void setHand(int seat, int[] counts){
+		Hand hand = hands[seat];
+		for(int t = 0; t < Hand.KINDS; t++){
+			while(hand.getCount(t) > counts[t]) hand.discard(Tile.of(t));
+			while(hand.getCount(t) < counts[t]) hand.add(Tile.of(t));
+		}
+	}
+
+	/**
+	 * Registra uma peça já visível na mesa (fora da pilha).
+	 */
+	public void reveal(int tile){
+		visible.reveal(Tile.of(tile));
+	}
+
+	/**
+	 * Registra um grupo já exposto (fora da pilha).
+	 *
+	 * @param code Código do {@link Decomposer} com {@link Scorer#KONG}/{@link Scorer#OPEN}
+	 */
+	public void addMeld(int seat, int code){
+		melds[seat][meldCount[seat]++] = code;
+	}
+
+	/**
+	 * Define o último descarte, que pode ser chamado (fora da pilha).
+	 */
+	public void setLastDiscard(int seat, int tile){
+		lastDiscarder = seat;
+		lastDiscard = tile;
+	}
+
+	public void setRiichi(int seat){
+		riichi |= 1 << seat;
+	}
+
+	public Hand getHand(int seat){
+		return hands[seat];
+	}
+
+	public VisibleTiles getVisible(){
+		return visible;
+	}
+
+	public int[] getMelds(int seat){
+		return melds[seat];
+	}
+
+	public int getMeldCount(int seat){
+		return meldCount[seat];
+	}
+
+	public boolean isRiichi(int seat){
+		return (riichi & 1 << seat) != 0;
+	}
+
+	public int getCurrent(){
+		return current;
+	}
+
+	public int getLastDiscard(){
+		return lastDiscard;
+	}
+
+	public int getLastDiscarder(){
+		return lastDiscarder;
+	}
+
+	/**
+	 * Vencedor, ou -1 se a mão não acabou com vitória.
+	 */
+	public int getWinner(){
+		return winner;
+	}
+
+	public int getRemaining(){
+		return remaining;
+	}
+
+	/**
+	 * Lances na pilha.
+	 */
+	public int depth(){
+		return depth;
+	}
+
+	/**
+	 * Preenche {@code dest} com os descartes do assento da vez (um por tipo
+	 * de peça na mão).
+	 *
+	 * @return Quantidade de lances
+	 */
+	public int discards(int[] dest){
+		Hand hand = hands[current];
+		int n = 0;
+		for(int t = 0; t < Hand.KINDS; t++){
+			if(hand.getCount(t) > 0) dest[n++] = move(DISCARD, current, t);
+		}
+		return n;
+	}
+
+	/**
+	 * Aplica um lance, sem validar se é legal.
+	 */
+	public void apply(int move){
+		if(depth == stack.length){
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		int type = type(move);
+		int seat = seat(move);
+		int t = tile(move);
+		boolean newRiichi = type == RIICHI && !isRiichi(seat);
+		stack[depth++] = move;
+		stack[depth++] = current | (lastDiscard + 1) << 2 | (lastDiscarder + 1) << 8
+				| (winner + 1) << 11 | (newRiichi ? 1 << 14 : 0);
+		Hand hand = hands[seat];
+		Tile tile = Tile.of(t);
+		switch(type){
+			case DRAW:
+				hand.add(tile);
+				remaining--;
+				current = seat;
+				lastDiscard = -1;
+				break;
+			case RIICHI:
+				riichi |= 1 << seat;
+				discard(seat, t);
+				break;
+			case DISCARD:
+				discard(seat, t);
+				break;
+			case CHOW: {
+				int f = first(move);
+				hand.add(tile);
+				for(int i = f; i < f + 3; i++){
+					hand.discard(Tile.of(i));
+					if(i != t) visible.reveal(Tile.of(i));
+				}
+				melds[seat][meldCount[seat]++] = f | Decomposer.CHOW | Scorer.OPEN;
+				current = seat;
+				lastDiscard = -1;
+				break;
+			}
+			case PONG:
+			case KONG: {
+				int size = type == PONG ? 3 : 4;
+				hand.add(tile);
+				for(int i = 0; i < size; i++) hand.discard(tile);
+				for(int i = 1; i < size; i++) visible.reveal(tile);
+				melds[seat][meldCount[seat]++] = t | Scorer.OPEN | (type == KONG ? Scorer.KONG : 0);
+				current = seat;
+				lastDiscard = -1;
+				break;
+			}
+			case CONCEALED_KONG:
+				for(int i = 0; i < 4; i++){
+					hand.discard(tile);
+					visible.reveal(tile);
+				}
+				melds[seat][meldCount[seat]++] = t | Scorer.KONG;
+				break;
+			case ADDED_KONG:
+				hand.discard(tile);
+				visible.reveal(tile);
+				melds[seat][findPong(seat, t)] |= Scorer.KONG;
+				break;
+			case RON:
+				hand.add(tile);
+				winner = seat;
+				break;
+			case HU:
+				winner = seat;
+				break;
+			default:
+				throw new IllegalArgumentException("Lance inválido: " + move);
+		}
+	}
+
+	/** Descarte comum ou com riichi */
+	private void discard(int seat, int t){
+		Tile tile = Tile.of(t);
+		hands[seat].discard(tile);
+		visible.reveal(tile);
+		lastDiscard = t;
+		lastDiscarder = seat;
+		current = (seat + 1) % 4;
+	}
+
+	/**
+	 * Desfaz o último lance aplicado.
+	 */
+	public void undo(){
+		int saved = stack[--depth];
+		int move = stack[--depth];
+		int type = type(move);
+		int seat = seat(move);
+		int t = tile(move);
+		Hand hand = hands[seat];
+		Tile tile = Tile.of(t);
+		switch(type){
+			case DRAW:
+				hand.discard(tile);
+				remaining++;
+				break;
+			case RIICHI:
+				if((saved & 1 << 14) != 0) riichi &= ~(1 << seat);
+				hand.add(tile);
+				visible.hide(tile);
+				break;
+			case DISCARD:
+				hand.add(tile);
+				visible.hide(tile);
+				break;
+			case CHOW: {
+				int f = first(move);
+				for(int i = f; i < f + 3; i++){
+					hand.add(Tile.of(i));
+					if(i != t) visible.hide(Tile.of(i));
+				}
+				hand.discard(tile);
+				meldCount[seat]--;
+				break;
+			}
+			case PONG:
+			case KONG: {
+				int size = type == PONG ? 3 : 4;
+				for(int i = 0; i < size; i++) hand.add(tile);
+				for(int i = 1; i < size; i++) visible.hide(tile);
+				hand.discard(tile);
+				meldCount[seat]--;
+				break;
+			}
+			case CONCEALED_KONG:
+				for(int i = 0; i < 4; i++){
+					hand.add(tile);
+					visible.hide(tile);
+				}
+				meldCount[seat]--;
+				break;
+			case ADDED_KONG:
+				hand.add(tile);
+				visible.hide(tile);
+				melds[seat][findPong(seat, t)] &= ~Scorer.KONG;
+				break;
+			case RON:
+				hand.discard(tile);
+				break;
+			default:
+				break;
+		}
+		current = saved & 3;
+		lastDiscard = (saved >>> 2 & 63) - 1;
+		lastDiscarder = (saved >>> 8 & 7) - 1;
+		winner = (saved >>> 11 & 7) - 1;
+	}
+
+	/** Posição do pong exposto (ou kong adicionado) da peça */
+	private int findPong(int seat, int tile){
+		for(int i = 0; i < meldCount[seat]; i++){
+			int meld = melds[seat][i];
+			if((meld & (Decomposer.CHOW | Scorer.OPEN | 63)) == (tile | Scorer.OPEN)) return i;
+		}
+		throw new IllegalStateException("Sem pong de " + tile + " no assento " + seat);
+	}
+}
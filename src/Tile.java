@@ -6,10 +6,13 @@
  *   <li><b>Naipe (suit)</b>: 0=萬(caracteres), 1=筒(círculos), 2=條(bambus), 3=字(honras)</li>
  *   <li><b>Valor (value)</b>: 0-8 para naipes numéricos, 0-6 para honras</li>
  *   <li><b>Índice (index)</b>: Identificador único calculado como (suit * 9 + value)</li>
- *   <li><b>Tamanho (size)</b>: Quantidade de peças idênticas na mão</li>
  * </ul>
  * </p>
  * 
+ * <p>As peças são imutáveis e compartilhadas: existe uma única instância para
+ * cada um dos 34 tipos, obtida por {@link #of(int)}. A quantidade de peças
+ * idênticas pertence à {@link Hand}, não à peça.</p>
+ * 
  * <p>Honras (suit=3) incluem:
  * <ul>
  *   <li>Ventos: 東(Leste), 南(Sul), 西(Oeste), 北(Norte)</li>
@@ -36,9 +39,15 @@ public class Tile implements Comparable<Tile>{
     
     /** Índice único da peça */
     private final int index;
-    
-    /** Quantidade de peças idênticas */
-    private int size;
+
+    /** Tabela com a única instância de cada um dos 34 tipos de peça */
+    private static final Tile[] TILES = new Tile[34];
+
+    static {
+        for (int i = 0; i < TILES.length; i++) {
+            TILES[i] = new Tile(i);
+        }
+    }
 
     /**
      * Construtor que cria uma peça a partir de um índice.
@@ -50,13 +59,27 @@ public class Tile implements Comparable<Tile>{
      * </ul>
      * </p>
      * 
-     * @param i Índice da peça (0-35)
+     * @param i Índice da peça (0-33)
      */
-    public Tile(int i){
+    private Tile(int i){
         this.suit = i / 9;
         this.value = i % 9;
         this.index = i;
-        this.size = 1;
+    }
+
+    /**
+     * Retorna a instância compartilhada da peça com o índice informado.
+     * Não há alocação: a mesma instância é retornada em todas as chamadas.
+     * 
+     * @param index Índice da peça (0-33)
+     * @return Peça correspondente ao índice
+     * @throws IllegalArgumentException se o índice estiver fora do intervalo
+     */
+    public static Tile of(int index){
+        if (index < 0 || index >= TILES.length) {
+            throw new IllegalArgumentException("Índice de peça inválido: " + index);
+        }
+        return TILES[index];
     }
 
     /**
@@ -86,41 +109,6 @@ public class Tile implements Comparable<Tile>{
         return index;
     }
 
-    /**
-     * Retorna a quantidade de peças idênticas.
-     * 
-     * @return Número de peças (1-4 tipicamente)
-     */
-    public int getSize(){
-        return size;
-    }
-
-    /**
-     * Adiciona ao tamanho da peça (incrementa a contagem).
-     * 
-     * @param s Valor a ser adicionado (deve ser não-negativo)
-     * @throws IllegalArgumentException se s for negativo
-     */
-    public void addSize(int s){
-        if (s < 0) {
-            throw new IllegalArgumentException("Tamanho não pode ser negativo");
-        }
-        this.size += s;
-    }
-
-    /**
-     * Define o tamanho da peça (contagem absoluta).
-     * 
-     * @param s Novo tamanho (deve ser positivo)
-     * @throws IllegalArgumentException se s for menor ou igual a zero
-     */
-    public void setSize(int s){
-        if (s <= 0) {
-            throw new IllegalArgumentException("Tamanho deve ser positivo");
-        }
-        this.size = s;
-    }
-    
     /**
      * Retorna a representação em string da peça em caracteres chineses.
      * 
@@ -178,18 +166,6 @@ public class Tile implements Comparable<Tile>{
         return Integer.compare(this.index, that.index);
     }
 
-    /**
-     * Cria uma cópia independente desta peça.
-     * A cópia terá o mesmo índice e tamanho.
-     * 
-     * @return Nova instância de Tile com os mesmos atributos
-     */
-    public Tile copy(){
-        Tile t = new Tile(index);
-        t.setSize(size);
-        return t;
-    }
-
     /**
      * Retorna uma peça adjacente com o deslocamento especificado.
      * 
@@ -210,9 +186,7 @@ public class Tile implements Comparable<Tile>{
         if(suit == 3 && (value + offset < 0 || value + offset > 6)){
             return null;        
         }
-        Tile t = new Tile(index + offset);
-        t.setSize(size);
-        return t;
+        return TILES[index + offset];
     }
 
     /**
@@ -0,0 +1,169 @@
+/**
+ * Cálculo de aceitação (受け入れ, ukeire): quantas peças ainda vivas reduzem o
+ * shanten da mão.
+ *
+ * <p>As peças vivas são as 4 cópias de cada tipo menos as visíveis na mesa
+ * ({@link VisibleTiles}) e as que estão na própria mão. Para cada naipe, a
+ * combinação das linhas dos outros três naipes no {@link Shanten} é calculada
+ * uma vez; cada peça candidata custa então uma leitura de tabela, e as formas
+ * de sete pares e treze órfãos são atualizadas só pela diferença.</p>
+ */
+public final class Ukeire {
+
+	private Ukeire(){
+	}
+
+	/**
+	 * Aceitação de uma mão com 3n+1 peças.
+	 *
+	 * @param hand Mão avaliada (não é alterada)
+	 * @param visible Peças visíveis na mesa, ou null para ignorar a mesa
+	 * @return Número de peças vivas que reduzem o shanten
+	 */
+	public static int count(Hand hand, VisibleTiles visible){
+		return count(hand.getCounts(new int[Hand.KINDS]), visible, -1);
+	}
+
+	/**
+	 * Avalia todos os descartes possíveis de uma mão com 3n+2 peças.
+	 *
+	 * <p>Para cada tipo de peça presente na mão, {@code shanten[i]} recebe o
+	 * shanten após descartá-la e {@code ukeire[i]} a aceitação resultante.
+	 * Tipos ausentes recebem {@link Integer#MAX_VALUE} e -1.</p>
+	 *
+	 * @param hand Mão avaliada (não é alterada)
+	 * @param visible Peças visíveis na mesa, ou null para ignorar a mesa
+	 * @param shanten Saída com 34 posições
+	 * @param ukeire Saída com 34 posições
+	 * @return Índice do melhor descarte (menor shanten, depois maior aceitação)
+	 */
+	public static int evaluate(Hand hand, VisibleTiles visible, int[] shanten, int[] ukeire){
+		return evaluate(hand.getCounts(new int[Hand.KINDS]), visible, shanten, ukeire);
+	}
+
+	/**
+	 * Mesmo que {@link #evaluate(Hand, VisibleTiles, int[], int[])}, sobre um
+	 * vetor de quantidades. O vetor é alterado durante o cálculo e restaurado
+	 * antes de retornar.
+	 */
+	public static int evaluate(int[] counts, VisibleTiles visible, int[] shanten, int[] ukeire){
+		int best = -1;
+		for(int i = 0; i < Hand.KINDS; i++){
+			if(counts[i] == 0){
+				shanten[i] = Integer.MAX_VALUE;
+				ukeire[i] = -1;
+				continue;
+			}
+			counts[i]--;
+			shanten[i] = Shanten.calculate(counts);
+			/* a peça descartada vai para o rio e deixa de estar viva */
+			ukeire[i] = count(counts, visible, i);
+			counts[i]++;
+			if(best < 0 || shanten[i] < shanten[best]
+					|| (shanten[i] == shanten[best] && ukeire[i] > ukeire[best])){
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Aceitação de uma mão com 3n+1 peças dada pelas quantidades.
+	 *
+	 * @param counts Quantidade de cada tipo de peça (não é alterado)
+	 * @param visible Peças visíveis na mesa, ou null
+	 * @param discarded Peça recém-descartada (uma cópia a menos viva), ou -1
+	 * @return Número de peças vivas que reduzem o shanten
+	 */
+	static int count(int[] counts, VisibleTiles visible, int discarded){
+		return count(counts, visible, discarded, null);
+	}
+
+	/**
+	 * Aceitação com as cópias vivas de cada peça já contadas, para quem
+	 * desconta da mesa peças que ainda não chegaram a ela (uma busca).
+	 *
+	 * @param counts Quantidade de cada tipo de peça (não é alterado)
+	 * @param live Cópias vivas de cada peça
+	 * @return Número de peças vivas que reduzem o shanten
+	 */
+	static int count(int[] counts, int[] live){
+		return count(counts, null, -1, live);
+	}
+
+	private static int count(int[] counts, VisibleTiles visible, int discarded, int[] liveCounts){
+		int total = 0;
+		int pairs = 0;
+		int kinds = 0;
+		for(int c : counts){
+			total += c;
+			if(c > 0) kinds++;
+			if(c >= 2) pairs++;
+		}
+		int orphanKinds = 0;
+		boolean orphanPair = false;
+		for(int i : Shanten.ORPHANS){
+			if(counts[i] > 0) orphanKinds++;
+			if(counts[i] >= 2) orphanPair = true;
+		}
+		boolean closed = total >= 13;
+		int melds = total / 3;
+
+		int man = Shanten.suitKey(counts, 0);
+		int pin = Shanten.suitKey(counts, 1);
+		int sou = Shanten.suitKey(counts, 2);
+		int honor = Shanten.suitKey(counts, 3);
+		long rowMan = Shanten.numberRow(man);
+		long rowPin = Shanten.numberRow(pin);
+		long rowSou = Shanten.numberRow(sou);
+		long rowHonor = Shanten.honorRow(honor);
+		long manPin = Shanten.combine(rowMan, rowPin);
+		long souHonor = Shanten.combine(rowSou, rowHonor);
+
+		int base = Shanten.finish(manPin, souHonor, melds);
+		if(closed){
+			base = Math.min(base, Shanten.sevenPairs(pairs, kinds));
+			base = Math.min(base, Shanten.thirteenOrphans(orphanKinds, orphanPair));
+		}
+
+		int res = 0;
+		for(int suit = 0; suit < 4; suit++){
+			long others;
+			int key;
+			if(suit == 0){
+				others = Shanten.combine(rowPin, souHonor);
+				key = man;
+			}
+			else if(suit == 1){
+				others = Shanten.combine(rowMan, souHonor);
+				key = pin;
+			}
+			else if(suit == 2){
+				others = Shanten.combine(manPin, rowHonor);
+				key = sou;
+			}
+			else{
+				others = Shanten.combine(manPin, rowSou);
+				key = honor;
+			}
+			int size = suit == 3 ? 7 : 9;
+			for(int v = 0; v < size; v++){
+				int j = suit * 9 + v;
+				int live = liveCounts != null ? liveCounts[j]
+						: (visible == null ? 4 : 4 - visible.getCount(j)) - counts[j] - (j == discarded ? 1 : 0);
+				if(live <= 0) continue;
+				int next = key + Shanten.POW5[v];
+				long row = suit == 3 ? Shanten.honorRow(next) : Shanten.numberRow(next);
+				int after = Shanten.finish(row, others, melds);
+				if(closed){
+					after = Math.min(after, Shanten.sevenPairs(pairs + (counts[j] == 1 ? 1 : 0), kinds + (counts[j] == 0 ? 1 : 0)));
+					if(Shanten.isOrphan(j)){
+						after = Math.min(after, Shanten.thirteenOrphans(orphanKinds + (counts[j] == 0 ? 1 : 0), orphanPair || counts[j] == 1));
+					}
+				}
+				if(after < base) res += live;
+			}
+		}
+		return res;
+	}
+}
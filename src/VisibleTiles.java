@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+/**
+ * Contagem das peças já visíveis na mesa: descartes no rio e peças dos
+ * grupos expostos de todos os jogadores.
+ *
+ * <p>O {@link Board} atualiza a contagem de forma incremental, uma peça por
+ * vez, à medida que as peças chegam à mesa; os jogadores apenas consultam.
+ * Junto com a própria mão, permite saber quantas cópias de cada peça ainda
+ * podem ser compradas.</p>
+ */
+public class VisibleTiles {
+
+	/** Quantidade visível de cada tipo de peça */
+	private final int[] counts;
+
+	public VisibleTiles(){
+		counts = new int[Hand.KINDS];
+	}
+
+	/**
+	 * Cópia da contagem, que não muda com a original.
+	 */
+	public VisibleTiles(VisibleTiles other){
+		counts = other.counts.clone();
+	}
+
+	/**
+	 * Registra uma peça que ficou visível na mesa.
+	 *
+	 * @param tile Peça descartada ou exposta
+	 */
+	public void reveal(Tile tile){
+		counts[tile.getIndex()]++;
+	}
+
+	/**
+	 * Desfaz um {@link #reveal(Tile)}, quando uma busca volta um lance.
+	 */
+	public void hide(Tile tile){
+		counts[tile.getIndex()]--;
+	}
+
+	/**
+	 * Limpa a contagem no início de uma nova mão.
+	 */
+	public void reset(){
+		Arrays.fill(counts, 0);
+	}
+
+	/**
+	 * Retorna quantas cópias da peça estão visíveis na mesa.
+	 *
+	 * @param index Índice da peça (0-33)
+	 * @return Quantidade visível (0-4)
+	 */
+	public int getCount(int index){
+		return counts[index];
+	}
+
+	/**
+	 * Retorna quantas cópias da peça ainda não foram vistas por quem tem a mão
+	 * informada (nem na mesa, nem na própria mão).
+	 *
+	 * @param index Índice da peça (0-33)
+	 * @param own Mão do jogador que consulta
+	 * @return Cópias restantes (0-4)
+	 */
+	public int live(int index, Hand own){
+		return Math.max(0, 4 - counts[index] - own.getCount(index));
+	}
+}
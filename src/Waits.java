@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+
+/**
+ * Enumerador de esperas (待ち): dada uma mão com 3n+1 peças, retorna quais
+ * tipos de peça completam a mão.
+ *
+ * <p>O resultado é uma máscara de 34 bits (bit {@code i} = peça de índice
+ * {@code i}). A mão nunca é alterada e nenhuma estrutura é alocada: para cada
+ * naipe a combinação dos outros três é calculada uma única vez e cada peça
+ * candidata custa apenas uma leitura de tabela no {@link Shanten}.</p>
+ *
+ * <p>São consideradas a forma padrão, sete pares e treze órfãos. Uma peça da
+ * qual a mão já tem as quatro cópias não é espera.</p>
+ */
+public final class Waits {
+
+	/** Máscara das peças de cada naipe (萬, 筒, 條, 字) */
+	static final long[] SUIT_MASK = {0x1FFL, 0x1FFL << 9, 0x1FFL << 18, 0x7FL << 27};
+
+	private Waits(){
+	}
+
+	/**
+	 * Calcula as esperas de uma mão com 3n+1 peças.
+	 *
+	 * @param counts Quantidade de cada tipo de peça (34 posições)
+	 * @return Máscara com os tipos de peça que completam a mão (0 se não está em tenpai)
+	 */
+	public static long mask(int[] counts){
+		int total = 0;
+		for(int c : counts) total += c;
+		if(total % 3 != 1) return 0;
+
+		long res = standard(counts, total / 3);
+		if(total == 13){
+			res |= sevenPairs(counts);
+			res |= thirteenOrphans(counts);
+		}
+		return res;
+	}
+
+	/**
+	 * Esperas da forma padrão.
+	 */
+	private static long standard(int[] counts, int melds){
+		int man = Shanten.suitKey(counts, 0);
+		int pin = Shanten.suitKey(counts, 1);
+		int sou = Shanten.suitKey(counts, 2);
+		int honor = Shanten.suitKey(counts, 3);
+		long rowMan = Shanten.numberRow(man);
+		long rowPin = Shanten.numberRow(pin);
+		long rowSou = Shanten.numberRow(sou);
+		long rowHonor = Shanten.honorRow(honor);
+		long manPin = Shanten.combine(rowMan, rowPin);
+		long souHonor = Shanten.combine(rowSou, rowHonor);
+
+		/* uma espera da forma padrão está a no máximo 2 posições de uma peça
+		 * do mesmo naipe (ou é uma honra que já está na mão) */
+		long near = 0;
+		for(int i = 0; i < 27; i++){
+			if(counts[i] > 0) near |= (0b11111L << i >>> 2) & SUIT_MASK[i / 9];
+		}
+		for(int i = 27; i < Hand.KINDS; i++){
+			if(counts[i] > 0) near |= 1L << i;
+		}
+
+		long res = 0;
+		/* para cada naipe, os outros três já combinados */
+		for(int suit = 0; suit < 4; suit++){
+			if((near & SUIT_MASK[suit]) == 0) continue;
+			long others;
+			int key;
+			if(suit == 0){
+				others = Shanten.combine(rowPin, souHonor);
+				key = man;
+			}
+			else if(suit == 1){
+				others = Shanten.combine(rowMan, souHonor);
+				key = pin;
+			}
+			else if(suit == 2){
+				others = Shanten.combine(manPin, rowHonor);
+				key = sou;
+			}
+			else{
+				others = Shanten.combine(manPin, rowSou);
+				key = honor;
+			}
+			long want = Shanten.completing(others, melds);
+			if(want == 0) continue;
+			int kinds = suit == 3 ? 7 : 9;
+			for(int v = 0; v < kinds; v++){
+				int index = suit * 9 + v;
+				if(counts[index] >= 4 || (near & (1L << index)) == 0) continue;
+				int next = key + Shanten.POW5[v];
+				long row = suit == 3 ? Shanten.honorRow(next) : Shanten.numberRow(next);
+				if((Shanten.zeroFields(row) & want) != 0){
+					res |= 1L << index;
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Espera de sete pares: seis pares e uma peça isolada, que é a espera.
+	 */
+	private static long sevenPairs(int[] counts){
+		int pairs = 0;
+		int single = -1;
+		for(int i = 0; i < counts.length; i++){
+			if(counts[i] == 2) pairs++;
+			else if(counts[i] == 1) single = i;
+		}
+		return pairs == 6 && single >= 0 ? 1L << single : 0;
+	}
+
+	/**
+	 * Esperas de treze órfãos: sem par espera qualquer um dos treze, com par
+	 * espera o que está faltando.
+	 */
+	private static long thirteenOrphans(int[] counts){
+		int kinds = 0;
+		boolean pair = false;
+		long missing = 0;
+		long all = 0;
+		for(int i : Shanten.ORPHANS){
+			all |= 1L << i;
+			if(counts[i] > 0) kinds++;
+			else missing |= 1L << i;
+			if(counts[i] >= 2) pair = true;
+		}
+		if(Shanten.thirteenOrphans(kinds, pair) != 0) return 0;
+		return pair ? missing : all;
+	}
+
+	/**
+	 * Converte uma máscara de esperas em lista de peças, em ordem de índice.
+	 *
+	 * @param mask Máscara de 34 bits
+	 * @return Peças correspondentes aos bits ligados
+	 */
+	public static ArrayList<Tile> toTiles(long mask){
+		ArrayList<Tile> res = new ArrayList<Tile>(Long.bitCount(mask));
+		while(mask != 0){
+			res.add(Tile.of(Long.numberOfTrailingZeros(mask)));
+			mask &= mask - 1;
+		}
+		return res;
+	}
+
+	/**
+	 * Verifica se a peça de índice {@code index} está na máscara.
+	 */
+	public static boolean contains(long mask, int index){
+		return (mask & (1L << index)) != 0;
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * Muro de uma mão: muro vivo, muro morto e indicadores de dora.
+ *
+ * <p>As peças ficam em um {@code byte[]} com o índice de tipo (0-33) na
+ * ordem de compra. As últimas {@value #DEAD_WALL} posições são o muro morto:</p>
+ * <ul>
+ * <li>indicador de dora {@code i}: posição {@code início + 2i}, e o de ura
+ * dora logo depois ({@code início + 2i + 1}), para {@code i} de 0 a 4;</li>
+ * <li>peças de reposição (嶺上牌): as 4 últimas posições, tiradas do fim.</li>
+ * </ul>
+ * <p>Cada kong compra uma peça de reposição, revela o próximo indicador e o
+ * muro morto volta a ter {@value #DEAD_WALL} peças tomando a última do muro
+ * vivo, então o muro vivo acaba uma posição antes. Nenhuma operação cria
+ * objetos.</p>
+ */
+public class Wall {
+
+	/** Peças do muro morto (王牌) */
+	public static final int DEAD_WALL = 14;
+
+	/** Peças de reposição de kong (嶺上牌) */
+	public static final int RINSHAN = 4;
+
+	/** Indicadores de dora que podem ser revelados */
+	public static final int MAX_INDICATORS = 5;
+
+	/** Índice de tipo de cada peça, na ordem de compra */
+	final byte[] tiles;
+
+	/** Primeira posição do muro morto */
+	private final int deadStart;
+
+	/** Próxima peça do muro vivo */
+	private int next;
+
+	/** Fim do muro vivo (exclusivo) */
+	private int liveEnd;
+
+	/** Peças de reposição já compradas */
+	private int kongs;
+
+	/**
+	 * @param size Peças do muro (136)
+	 */
+	public Wall(int size){
+		if(size < DEAD_WALL){
+			throw new IllegalArgumentException("Muro menor que o muro morto: " + size);
+		}
+		tiles = new byte[size];
+		deadStart = size - DEAD_WALL;
+		reset();
+	}
+
+	/**
+	 * Volta ao início da mão, com as peças já embaralhadas em {@link #tiles}.
+	 */
+	void reset(){
+		next = 0;
+		liveEnd = deadStart;
+		kongs = 0;
+	}
+
+	public int size(){
+		return tiles.length;
+	}
+
+	/**
+	 * Compra a próxima peça do muro vivo.
+	 *
+	 * @return Índice de tipo da peça, ou -1 se o muro vivo acabou
+	 */
+	public int draw(){
+		if(next >= liveEnd) return -1;
+		return tiles[next++];
+	}
+
+	/**
+	 * Compra a peça de reposição de um kong e revela o próximo indicador de
+	 * dora.
+	 *
+	 * @return Índice de tipo da peça, ou -1 se as {@value #RINSHAN} reposições
+	 *         já foram usadas
+	 */
+	public int rinshan(){
+		if(kongs == RINSHAN) return -1;
+		int tile = tiles[tiles.length - 1 - kongs];
+		kongs++;
+		liveEnd--;
+		return tile;
+	}
+
+	/**
+	 * Peças que ainda podem ser compradas do muro vivo.
+	 */
+	public int remaining(){
+		return Math.max(0, liveEnd - next);
+	}
+
+	/**
+	 * Peças já compradas do muro vivo (sem as reposições).
+	 */
+	public int drawn(){
+		return next;
+	}
+
+	/**
+	 * Kongs declarados na mão (reposições compradas).
+	 */
+	public int getKongs(){
+		return kongs;
+	}
+
+	/**
+	 * Indicadores de dora revelados: um no início e mais um por kong.
+	 */
+	public int getDoraCount(){
+		return 1 + kongs;
+	}
+
+	/**
+	 * @param i Indicador (0 = o revelado no início)
+	 * @return Índice de tipo do indicador de dora
+	 */
+	public int getDoraIndicator(int i){
+		return tiles[deadStart + 2 * i];
+	}
+
+	/**
+	 * @param i Indicador (0 = o que fica sob o primeiro indicador de dora)
+	 * @return Índice de tipo do indicador de ura dora
+	 */
+	public int getUraIndicator(int i){
+		return tiles[deadStart + 2 * i + 1];
+	}
+
+	/**
+	 * Copia as peças que são dora (não os indicadores) para {@code dest}.
+	 *
+	 * @param dest Vetor com pelo menos {@code 2 * MAX_INDICATORS} posições
+	 * @param ura true para incluir as ura dora (vencedor em riichi)
+	 * @return Quantidade de posições preenchidas
+	 */
+	public int getDora(int[] dest, boolean ura){
+		int n = 0;
+		for(int i = 0; i < getDoraCount(); i++){
+			dest[n++] = doraOf(getDoraIndicator(i));
+			if(ura) dest[n++] = doraOf(getUraIndicator(i));
+		}
+		return n;
+	}
+
+	/**
+	 * Peça indicada por um indicador de dora: a seguinte do mesmo naipe (9
+	 * volta ao 1), dos ventos (北 volta ao 東) ou dos dragões (白 → 發 → 中 → 白).
+	 */
+	public static int doraOf(int indicator){
+		if(indicator < 27){
+			return indicator % 9 == 8 ? indicator - 8 : indicator + 1;
+		}
+		if(indicator < 31){
+			return indicator == 30 ? 27 : indicator + 1;
+		}
+		/* 31 中, 32 發, 33 白 */
+		return indicator == 31 ? 33 : indicator - 1;
+	}
+}
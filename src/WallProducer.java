@@ -0,0 +1,154 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Gera muros embaralhados antecipadamente em uma thread de fundo.
+ *
+ * <p>Os muros são guardados em um buffer circular de {@code byte[136]} (o
+ * índice de tipo de cada peça, na ordem de compra), preenchido na sequência
+ * de mãos da semente com o mesmo embaralhamento do {@link Shuffler}; a thread
+ * do jogo só copia um muro pronto, sem pagar o embaralhamento no caminho
+ * crítico. Nenhum objeto é criado por muro: os vetores do buffer são
+ * reaproveitados.</p>
+ *
+ * <p>A thread é daemon e termina com {@link #close()}.</p>
+ */
+public class WallProducer implements Runnable, AutoCloseable, ForkJoinPool.ManagedBlocker {
+
+	/** Muros prontos guardados por padrão */
+	public static final int DEFAULT_CAPACITY = 8;
+
+	private final long seed;
+
+	private final byte[][] ring;
+
+	/** Número da mão de cada posição do buffer */
+	private final long[] hands;
+
+	/** Próxima posição a consumir e próxima a preencher (contadores crescentes) */
+	private long head;
+	private long tail;
+
+	/** Número da mão do próximo muro a gerar */
+	private long nextHand;
+
+	/** Muda a cada reposicionamento, para descartar um muro gerado antes dele */
+	private long generation;
+
+	private boolean closed;
+
+	private final Thread thread;
+
+	/**
+	 * @param seed Semente da sequência de muros
+	 * @param firstHand Número da primeira mão a gerar
+	 * @param size Peças por muro
+	 * @param capacity Muros guardados no buffer
+	 */
+	public WallProducer(long seed, long firstHand, int size, int capacity){
+		this.seed = seed;
+		ring = new byte[capacity][size];
+		hands = new long[capacity];
+		nextHand = firstHand;
+		thread = new Thread(this, "WallProducer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Copia o próximo muro pronto, esperando se o buffer está vazio. A espera
+	 * passa por {@link ForkJoinPool#managedBlock}, para que um worker de
+	 * ForkJoinPool parado aqui não prenda o pool: o pool pode compensar com
+	 * outra thread enquanto o muro não fica pronto.
+	 *
+	 * @param dest Vetor que recebe o muro
+	 * @return Número da mão do muro
+	 */
+	public long take(byte[] dest){
+		while(true){
+			synchronized(this){
+				if(head != tail){
+					int slot = (int)(head % ring.length);
+					System.arraycopy(ring[slot], 0, dest, 0, dest.length);
+					long hand = hands[slot];
+					head++;
+					notifyAll();
+					return hand;
+				}
+				if(closed) throw new IllegalStateException("WallProducer fechado");
+			}
+			try {
+				ForkJoinPool.managedBlock(this);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Há um muro pronto ou o produtor fechou; parte do
+	 * {@link ForkJoinPool.ManagedBlocker}.
+	 */
+	@Override
+	public synchronized boolean isReleasable(){
+		return head != tail || closed;
+	}
+
+	/**
+	 * Espera um muro pronto ou o fechamento; parte do
+	 * {@link ForkJoinPool.ManagedBlocker}.
+	 */
+	@Override
+	public synchronized boolean block() throws InterruptedException {
+		while(head == tail && !closed) wait();
+		return true;
+	}
+
+	/**
+	 * Descarta os muros prontos e recomeça a sequência na mão informada.
+	 */
+	public synchronized void restart(long hand){
+		generation++;
+		head = tail;
+		nextHand = hand;
+		notifyAll();
+	}
+
+	@Override
+	public void run(){
+		while(true){
+			int slot;
+			long hand;
+			long gen;
+			synchronized(this){
+				while(!closed && tail - head == ring.length){
+					try {
+						wait();
+					} catch(InterruptedException e) {
+						return;
+					}
+				}
+				if(closed) return;
+				slot = (int)(tail % ring.length);
+				hand = nextHand;
+				gen = generation;
+			}
+			/* a posição só fica visível ao consumidor depois do tail++ abaixo */
+			Shuffler.shuffle(ring[slot], seed, hand);
+			synchronized(this){
+				if(gen == generation){
+					hands[slot] = hand;
+					tail++;
+					nextHand++;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close(){
+		closed = true;
+		notifyAll();
+	}
+}
@@ -187,11 +187,7 @@ public class comGUI
 	
 	public void flipTile(int index, List<Tile> tile)
 	{
-		ArrayList<Tile> temp = new ArrayList<Tile>();
-		for(Tile t : tile)
-			for(int i = 0; i < t.getSize(); i++){
-				temp.add(new Tile(t.getIndex()));
-			}
+		ArrayList<Tile> temp = new ArrayList<Tile>(tile);
 		
 		if(index == 0)
 			frame.setFlip(index, temp);
@@ -202,6 +198,16 @@ public class comGUI
 		renewGUI();
 	}
 	
+	/**
+	 * Atualiza os placares na GUI.
+	 *
+	 * @param scores Pontuação de cada jogador, na ordem {eu, direita, oponente, esquerda}
+	 */
+	public void showScores(int[] scores)
+	{
+		frame.setScores(scores);
+	}
+	
 	public boolean showWind(int wind, int game)
 	{
 		frame.showWind(wind, game);
@@ -26,6 +26,7 @@ import java.awt.Dimension;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.awt.Font;
 import javax.swing.SwingConstants;
 
@@ -88,7 +89,8 @@ class mainGUI extends JFrame {
 	
 	int wind = 0, game = 0;
 	
-	public volatile boolean ok;
+	/** Completado por ack() com as peças escolhidas; o PlayerGUI espera nele */
+	private volatile CompletableFuture<ArrayList<Tile>> answer = new CompletableFuture<ArrayList<Tile>>();
 	public volatile boolean nok;
 	public ArrayList<Tile> push;
 	public boolean restart;
@@ -113,7 +115,6 @@ class mainGUI extends JFrame {
 	public mainGUI() {
 		flipNum = -1;
 		
-		ok = false;
 		push = new ArrayList<Tile>();
 		
 		rightPlayerOpenTile = new ArrayList<Tile>();
@@ -703,7 +704,7 @@ class mainGUI extends JFrame {
 	
 	public void sendToBoard(int suit, int value)
 	{
-		Tile t = new Tile(suit*9 + (value - 1));
+		Tile t = Tile.of(suit*9 + (value - 1));
 		ArrayList<Tile> temp = new ArrayList<Tile>();
 		temp.add(t);
 		push = temp;
@@ -712,7 +713,16 @@ class mainGUI extends JFrame {
 
 	public void ack()
 	{
-		ok = true;
+		answer.complete(push);
+	}
+
+	//blocks until ack() and gets ready for the next choice
+	public ArrayList<Tile> awaitAck()
+	{
+		ArrayList<Tile> res = answer.join();
+		answer = new CompletableFuture<ArrayList<Tile>>();
+		push = new ArrayList<Tile>();
+		return res;
 	}
 
 	public void actionFail()